@@ -0,0 +1,221 @@
+package com.avocarrot.json2view;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Named callbacks for ONCLICK (and onTouch) properties, registered by the app and resolved once when the
+ * property is applied, so events do not look up anything.
+ * e.g. {"name": "onClick", "type": "string", "value": "openDetails"}
+ *
+ * Values as "full.class.Name|method" (legacy) are resolved once to the method, which is invoked on an
+ * instance of the class created when the action is bound to the view (or without instance if it is static).
+ */
+public class ActionRegistry {
+
+    /**
+     * Callback of a click
+     */
+    public interface Action {
+        /**
+         * @param view : the view that clicked
+         */
+        void run(View view);
+    }
+
+    /**
+     * Callback of a touch event
+     */
+    public interface TouchAction {
+        /**
+         * @return true if event is consumed
+         */
+        boolean onTouch(View view, MotionEvent event);
+    }
+
+    private static final ConcurrentHashMap<String, Action> sActions = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, TouchAction> sTouchActions = new ConcurrentHashMap<>();
+    /* legacy values resolved to their method, MISSING if they cannot resolve */
+    private static final ConcurrentHashMap<String, Object> sLegacy = new ConcurrentHashMap<>();
+    private static final Object MISSING = new Object();
+
+    private static Executor sExecutor;
+
+    /**
+     * @param name : the value of the property in json
+     * @param action : called in main thread
+     */
+    public static void register(@NonNull String name, @NonNull Action action) {
+        sActions.put(name, action);
+    }
+
+    /**
+     * @param name : the value of the property in json
+     * @param action : the action
+     * @param background : true to call the action in background executor, for heavy actions that do not touch the views
+     */
+    public static void register(@NonNull String name, @NonNull final Action action, boolean background) {
+        if (!background) {
+            register(name, action);
+            return;
+        }
+        register(name, new Action() {
+            @Override
+            public void run(final View view) {
+                executor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            action.run(view);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @param name : the value of the property in json
+     * @param action : called in main thread for every touch event
+     */
+    public static void registerTouch(@NonNull String name, @NonNull TouchAction action) {
+        sTouchActions.put(name, action);
+    }
+
+    public static void unregister(@NonNull String name) {
+        sActions.remove(name);
+        sTouchActions.remove(name);
+    }
+
+    /**
+     * @param executor : executor of background actions, a single background thread by default
+     */
+    public static synchronized void setExecutor(@NonNull Executor executor) {
+        sExecutor = executor;
+    }
+
+    private static synchronized Executor executor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "json2view-action");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    /**
+     * @param value : the value of the property
+     * @return the registered or legacy action, or null if value cannot resolve
+     */
+    static Action getAction(@NonNull String value) {
+        Action action = sActions.get(value);
+        if (action != null)
+            return action;
+        final Method method = legacyMethod(value);
+        if (method == null)
+            return null;
+        final Object target = target(method);
+        if (target == MISSING)
+            return null;
+        return new Action() {
+            @Override
+            public void run(View view) {
+                invoke(method, target);
+            }
+        };
+    }
+
+    /**
+     * @param value : the value of the property
+     * @return the registered or legacy action, or null if value cannot resolve
+     */
+    static TouchAction getTouchAction(@NonNull String value) {
+        TouchAction action = sTouchActions.get(value);
+        if (action != null)
+            return action;
+        final Method method = legacyMethod(value);
+        if (method == null)
+            return null;
+        final Object target = target(method);
+        if (target == MISSING)
+            return null;
+        return new TouchAction() {
+            @Override
+            public boolean onTouch(View view, MotionEvent event) {
+                Object result = invoke(method, target);
+                return !(result instanceof Boolean) || (Boolean) result;
+            }
+        };
+    }
+
+    /**
+     * @return the method of "full.class.Name|method" or null
+     */
+    private static Method legacyMethod(String value) {
+        Object method = sLegacy.get(value);
+        if (method == null) {
+            method = MISSING;
+            String properties[] = value.split("\\|");
+            if (properties.length == 2) {
+                try {
+                    InflationMetrics.reflectiveLookup();
+                    Method found = Class.forName(properties[0]).getMethod(properties[1]);
+                    /* skip the access check on every event */
+                    found.setAccessible(true);
+                    method = found;
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            sLegacy.put(value, method);
+        }
+        return method == MISSING ? null : (Method) method;
+    }
+
+    /**
+     * called when the action is bound to a view
+     * @return the instance the method is invoked on, null if it is static or MISSING if the class cannot be instantiated
+     */
+    private static Object target(Method method) {
+        if (Modifier.isStatic(method.getModifiers()))
+            return null;
+        try {
+            InflationMetrics.reflectiveLookup();
+            return method.getDeclaringClass().newInstance();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return MISSING;
+    }
+
+    private static Object invoke(Method method, Object target) {
+        try {
+            return method.invoke(target);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
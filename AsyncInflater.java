@@ -0,0 +1,218 @@
+package com.avocarrot.json2view;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inflate layouts off the main thread.
+ * The json is parsed, converted (dimens, colors, drawables, images) and its images are decoded on a background executor,
+ * the views are created on a dedicated looper thread and the finished tree is delivered in main thread.
+ * If a view cannot be created outside the main thread the whole tree is created in main thread.
+ */
+class AsyncInflater {
+
+    /**
+     * load the template of the layout, called in background thread
+     */
+    interface TemplateSource {
+        LayoutTemplate load();
+    }
+
+    private static final int EXECUTOR_THREADS = 2;
+
+    private static ExecutorService sExecutor;
+    private static Handler sInflaterHandler;
+    private static Handler sMainHandler;
+    private static volatile boolean sCreateViewsInBackground = true;
+
+    static void setCreateViewsInBackground(boolean enabled) {
+        sCreateViewsInBackground = enabled;
+    }
+
+    static InflationTask inflate(@NonNull final Context context, @NonNull final TemplateSource source, final ViewGroup parent,
+                                 @NonNull final DynamicView.InflateCallback callback) {
+        final InflationTask task = new InflationTask();
+        final Application.ActivityLifecycleCallbacks lifecycle = cancelOnDestroy(context, task);
+
+        executor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (task.isCancelled()) {
+                    deliver(context, task, lifecycle, callback, null);
+                    return;
+                }
+                final LayoutTemplate template;
+                try {
+                    template = source.load();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    deliver(context, task, lifecycle, callback, null);
+                    return;
+                }
+                if (task.isCancelled()) {
+                    deliver(context, task, lifecycle, callback, null);
+                    return;
+                }
+                if (template != null) {
+                    /* decode images here, applying them in the inflater or main thread only reads the cache */
+                    ImagePipeline.preload(template);
+                    if (task.isCancelled()) {
+                        deliver(context, task, lifecycle, callback, null);
+                        return;
+                    }
+                }
+                if (template == null || !sCreateViewsInBackground) {
+                    createViewsInMain(context, template, parent, task, lifecycle, callback);
+                    return;
+                }
+                inflaterHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (task.isCancelled()) {
+                            deliver(context, task, lifecycle, callback, null);
+                            return;
+                        }
+                        View view;
+                        try {
+                            view = DynamicView.createView(context, template, parent);
+                        } catch (RuntimeException e) {
+                            /* some view needs the main thread, create the tree there */
+                            createViewsInMain(context, template, parent, task, lifecycle, callback);
+                            return;
+                        }
+                        deliver(context, task, lifecycle, callback, view);
+                    }
+                });
+            }
+        });
+
+        return task;
+    }
+
+    private static void createViewsInMain(final Context context, final LayoutTemplate template, final ViewGroup parent,
+                                          final InflationTask task, final Application.ActivityLifecycleCallbacks lifecycle,
+                                          final DynamicView.InflateCallback callback) {
+        mainHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                View view = task.isCancelled() ? null : DynamicView.createView(context, template, parent);
+                finish(context, task, lifecycle, callback, view);
+            }
+        });
+    }
+
+    private static void deliver(final Context context, final InflationTask task, final Application.ActivityLifecycleCallbacks lifecycle,
+                                final DynamicView.InflateCallback callback, final View view) {
+        mainHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                finish(context, task, lifecycle, callback, view);
+            }
+        });
+    }
+
+    /**
+     * called in main thread, release the lifecycle callbacks and call the callback if task is not cancelled
+     */
+    private static void finish(Context context, InflationTask task, Application.ActivityLifecycleCallbacks lifecycle,
+                               DynamicView.InflateCallback callback, View view) {
+        if (lifecycle != null)
+            ((Activity) context).getApplication().unregisterActivityLifecycleCallbacks(lifecycle);
+        if (task.isCancelled())
+            return;
+        task.setFinished();
+        callback.onInflated(view);
+    }
+
+    /**
+     * if the host is an activity cancel the task when the activity is destroyed
+     */
+    private static Application.ActivityLifecycleCallbacks cancelOnDestroy(Context context, final InflationTask task) {
+        if (!(context instanceof Activity))
+            return null;
+        final Activity host = (Activity) context;
+        Application application = host.getApplication();
+        if (application == null)
+            return null;
+        Application.ActivityLifecycleCallbacks lifecycle = new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityDestroyed(Activity activity) {
+                if (activity == host) {
+                    task.cancel();
+                    activity.getApplication().unregisterActivityLifecycleCallbacks(this);
+                }
+            }
+
+            @Override
+            public void onActivityCreated(Activity activity, Bundle savedInstanceState) {}
+
+            @Override
+            public void onActivityStarted(Activity activity) {}
+
+            @Override
+            public void onActivityResumed(Activity activity) {}
+
+            @Override
+            public void onActivityPaused(Activity activity) {}
+
+            @Override
+            public void onActivityStopped(Activity activity) {}
+
+            @Override
+            public void onActivitySaveInstanceState(Activity activity, Bundle outState) {}
+        };
+        application.registerActivityLifecycleCallbacks(lifecycle);
+        return lifecycle;
+    }
+
+    private static synchronized ExecutorService executor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newFixedThreadPool(EXECUTOR_THREADS, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger(1);
+
+                @Override
+                public Thread newThread(@NonNull final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "json2view-prepare-" + count.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    private static synchronized Handler inflaterHandler() {
+        if (sInflaterHandler == null) {
+            HandlerThread thread = new HandlerThread("json2view-inflater");
+            thread.start();
+            sInflaterHandler = new Handler(thread.getLooper());
+        }
+        return sInflaterHandler;
+    }
+
+    private static synchronized Handler mainHandler() {
+        if (sMainHandler == null)
+            sMainHandler = new Handler(Looper.getMainLooper());
+        return sMainHandler;
+    }
+}
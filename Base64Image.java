@@ -0,0 +1,186 @@
+package com.avocarrot.json2view;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Value of a BASE64 property, the encoded image (png, jpeg, ...) and its bounds.
+ * The bitmap is decoded when applied in a view through {@link ImagePipeline}, downsampled to the target size
+ */
+final class Base64Image {
+
+    /* encoded image bytes, a wrapped array or a slice of a binary layout, never copied */
+    private final ByteBuffer data;
+    /** hash of data, identical images in different nodes share the decoded bitmap */
+    final String key;
+    final int width;
+    final int height;
+    /** true if the image has no alpha channel and can be decoded as RGB_565 */
+    final boolean opaque;
+    /** size of the view that shows the image in pixels, 0 if not known */
+    final int targetWidth;
+    final int targetHeight;
+
+    private Base64Image(ByteBuffer data, String key, int width, int height, boolean opaque, int targetWidth, int targetHeight) {
+        this.data = data;
+        this.key = key;
+        this.width = width;
+        this.height = height;
+        this.opaque = opaque;
+        this.targetWidth = targetWidth;
+        this.targetHeight = targetHeight;
+    }
+
+    /**
+     * decode only the bounds of the image
+     * @param data : encoded image bytes
+     * @return the image or null if data is not an image
+     */
+    static Base64Image create(byte[] data) {
+        if (data == null)
+            return null;
+        return create(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * decode only the bounds of the image, the bytes are kept without copy
+     * @param data : encoded image bytes, from position to limit
+     * @return the image or null if data is not an image
+     */
+    static Base64Image create(ByteBuffer data) {
+        if (data == null || !data.hasRemaining())
+            return null;
+        data = data.slice().asReadOnlyBuffer();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decode(data, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0)
+            return null;
+        String key = LayoutTemplateCache.hash(data);
+        if (key == null)
+            key = data.remaining() + ":" + data.hashCode();
+        return new Base64Image(data, key, options.outWidth, options.outHeight, isOpaque(data), 0, 0);
+    }
+
+    /**
+     * @return the bitmap decoded with options, or null
+     */
+    Bitmap decode(BitmapFactory.Options options) {
+        return decode(data, options);
+    }
+
+    private static Bitmap decode(ByteBuffer data, BitmapFactory.Options options) {
+        if (data.hasArray())
+            return BitmapFactory.decodeByteArray(data.array(), data.arrayOffset() + data.position(), data.remaining(), options);
+        return BitmapFactory.decodeStream(new ByteBufferInputStream(data.duplicate()), null, options);
+    }
+
+    /**
+     * @return number of encoded bytes
+     */
+    int length() {
+        return data.remaining();
+    }
+
+    /**
+     * write the encoded bytes
+     */
+    void writeTo(OutputStream out) throws IOException {
+        if (data.hasArray()) {
+            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            return;
+        }
+        ByteBuffer source = data.duplicate();
+        byte[] chunk = new byte[Math.min(8192, source.remaining())];
+        while (source.hasRemaining()) {
+            int count = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, count);
+            out.write(chunk, 0, count);
+        }
+    }
+
+    /**
+     * @return the same image to be shown in a view of that size
+     */
+    Base64Image withTargetSize(int targetWidth, int targetHeight) {
+        return new Base64Image(data, key, width, height, opaque, targetWidth, targetHeight);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Base64Image))
+            return false;
+        Base64Image other = (Base64Image) o;
+        return key.equals(other.key) && targetWidth == other.targetWidth && targetHeight == other.targetHeight;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * key.hashCode() + targetWidth) + targetHeight;
+    }
+
+    /**
+     * jpeg has no alpha, png has no alpha if its color type is grayscale or truecolor without tRNS chunk
+     */
+    private static boolean isOpaque(ByteBuffer data) {
+        int start = data.position();
+        int length = data.remaining();
+        if (length > 2 && (data.get(start) & 0xFF) == 0xFF && (data.get(start + 1) & 0xFF) == 0xD8)
+            return true;
+        if (length > 25 && (data.get(start) & 0xFF) == 0x89 && data.get(start + 1) == 'P'
+                && data.get(start + 2) == 'N' && data.get(start + 3) == 'G') {
+            int colorType = data.get(start + 25);
+            if (colorType != 0 && colorType != 2)
+                return false;
+            /* walk the chunks before the image data to find transparency */
+            int offset = 8;
+            while (offset + 8 <= length) {
+                int chunkLength = data.getInt(start + offset);
+                String chunk = new String(new char[] { (char) data.get(start + offset + 4), (char) data.get(start + offset + 5),
+                        (char) data.get(start + offset + 6), (char) data.get(start + offset + 7) });
+                if (chunk.equals("tRNS"))
+                    return false;
+                if (chunk.equals("IDAT") || chunkLength < 0)
+                    return true;
+                offset += 12 + chunkLength;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * read a buffer as a stream, for buffers without array (memory mapped)
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining())
+                return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+
+import com.avocarrot.json2view.DynamicProperty.NAME;
+import com.avocarrot.json2view.DynamicProperty.TYPE;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compact binary encoding of a json layout, to keep layouts on disk and load them without parsing json.
+ *
+ * Format (big endian) :
+ * - header : magic "J2VB" (int), version (short), offset of root node in nodes section (int)
+ * - string table : count (int), for every string its length (int) and UTF-8 bytes
+ * - nodes section, every node after its children :
+ *   widget (string index), properties count (short), properties, children count (short), children offsets (int)
+ * - property : name ordinal (byte, 0xFF for custom name followed by its string index), type ordinal (byte), value.
+ *   Values with placeholders set the high bit of the type and are the string index of the value (since version 2)
+ * - value by type : INTEGER/COLOR int, FLOAT float, BOOLEAN byte, DIMEN unit (byte) and value (float),
+ *   BASE64 length (int) and decoded bytes, every other type a string index (DRAWABLE and JSON as json text)
+ *
+ * Strings are decoded once per table entry when first used, so widgets, ids and repeated values are not allocated per node,
+ * and images keep a slice of the buffer. Malformed input is reported as IOException.
+ */
+public class BinaryLayout {
+
+    static final int MAGIC = 0x4A325642;
+    static final short VERSION = 2;
+
+    private static final int CUSTOM_NAME = 0xFF;
+    private static final int BOUND = 0x80;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final NAME[] NAMES = NAME.values();
+    private static final TYPE[] TYPES = TYPE.values();
+
+    /**
+     * convert a json layout to binary
+     * @param jsonObject : json layout, e.g. sample.json
+     * @param outputStream : stream to write the binary layout
+     */
+    public static void write(@NonNull JSONObject jsonObject, @NonNull OutputStream outputStream) throws IOException {
+        Writer writer = new Writer();
+        int root = writer.writeNode(jsonObject);
+        if (root < 0)
+            throw new IOException("json is not a valid layout");
+
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(root);
+        out.writeInt(writer.strings.size());
+        for (String string : writer.strings) {
+            byte[] bytes = string.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        writer.nodes.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * memory map the file and read the layout
+     * @param file : binary layout created by {@link #write(JSONObject, OutputStream)}
+     */
+    public static LayoutTemplate load(@NonNull File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * read a binary layout to a template
+     * @param buffer : binary layout created by {@link #write(JSONObject, OutputStream)}, not modified
+     */
+    public static LayoutTemplate read(@NonNull ByteBuffer buffer) throws IOException {
+        return new Reader(buffer).read();
+    }
+
+    /**
+     * write the nodes of the json in post order, children before their parent
+     */
+    private static class Writer {
+        final List<String> strings = new ArrayList<>();
+        final StringIntMap stringIndices = new StringIntMap();
+        final ByteArrayOutputStream nodes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(nodes);
+
+        /**
+         * @return offset of the node in nodes section or -1 if json has no widget
+         */
+        int writeNode(JSONObject jsonObject) throws IOException {
+            String widget = jsonObject.optString("widget", null);
+            if (widget == null)
+                return -1;
+
+            List<Integer> children = new ArrayList<>();
+            JSONArray jViews = jsonObject.optJSONArray("views");
+            if (jViews != null) {
+                for (int i = 0; i < jViews.length(); i++) {
+                    JSONObject jView = jViews.optJSONObject(i);
+                    if (jView == null)
+                        continue;
+                    int child = writeNode(jView);
+                    if (child >= 0)
+                        children.add(child);
+                }
+            }
+
+            /* encode properties first, to count the valid ones */
+            ByteArrayOutputStream propertiesBytes = new ByteArrayOutputStream();
+            DataOutputStream properties = new DataOutputStream(propertiesBytes);
+            int count = 0;
+            JSONArray jArray = jsonObject.optJSONArray("properties");
+            if (jArray != null) {
+                for (int i = 0; i < jArray.length(); i++) {
+                    JSONObject jProperty = jArray.optJSONObject(i);
+                    if (jProperty != null && writeProperty(properties, jProperty))
+                        count++;
+                }
+            }
+
+            int offset = out.size();
+            out.writeInt(indexOf(ViewFactoryRegistry.normalizeWidget(widget)));
+            out.writeShort(count);
+            propertiesBytes.writeTo(out);
+            out.writeShort(children.size());
+            for (int child : children) {
+                out.writeInt(child);
+            }
+            return offset;
+        }
+
+        /**
+         * @return false if property is not valid and not written
+         */
+        private boolean writeProperty(DataOutputStream out, JSONObject jsonObject) throws IOException {
+            /* let DynamicProperty decide the name, type and if value is valid */
+            DynamicProperty property = new DynamicProperty(jsonObject);
+            if (!property.isValid())
+                return false;
+            Object value = jsonObject.opt("value");
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream p = new DataOutputStream(bytes);
+            if (property.getName() == NAME.NO_VALID) {
+                if (property.getCustomName() == null)
+                    return false;
+                p.writeByte(CUSTOM_NAME);
+                p.writeInt(indexOf(property.getCustomName()));
+            } else {
+                p.writeByte(property.getName().ordinal());
+            }
+            if (property.isBound()) {
+                p.writeByte(property.getType().ordinal() | BOUND);
+                p.writeInt(indexOf(value.toString()));
+                bytes.writeTo(out);
+                return true;
+            }
+            p.writeByte(property.getType().ordinal());
+            try {
+                switch (property.getType()) {
+                    case INTEGER:
+                        p.writeInt(Integer.parseInt(value.toString()));
+                        break;
+                    case COLOR:
+                        p.writeInt(property.getValueColor());
+                        break;
+                    case FLOAT:
+                        p.writeFloat(Float.parseFloat(value.toString()));
+                        break;
+                    case BOOLEAN:
+                        p.writeByte(property.getValueBoolean() ? 1 : 0);
+                        break;
+                    case DIMEN: {
+                        Dimension dimension = Dimension.parse(value.toString());
+                        p.writeByte(dimension.unit);
+                        p.writeFloat(dimension.value);
+                    }
+                    break;
+                    case BASE64: {
+                        Base64Image image = (Base64Image) property.getValue();
+                        p.writeInt(image.length());
+                        image.writeTo(p);
+                    }
+                    break;
+                    default:
+                        p.writeInt(indexOf(value.toString()));
+                        break;
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                return false;
+            }
+            bytes.writeTo(out);
+            return true;
+        }
+
+        private int indexOf(String string) {
+            int index = stringIndices.get(string, -1);
+            if (index < 0) {
+                index = strings.size();
+                strings.add(string);
+                stringIndices.put(string, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * read the nodes from the buffer in the same order as {@link LayoutTemplate.Compiler} creates them.
+     * Strings are decoded when a node first uses them and images are slices of the buffer, so nothing is copied up front
+     */
+    private static class Reader {
+        final ByteBuffer buffer;
+        final LayoutTemplate.Compiler compiler = new LayoutTemplate.Compiler();
+        /* position and length of every string, decoded to strings on first use */
+        int[] stringOffsets;
+        int[] stringLengths;
+        String[] strings;
+        int nodesStart;
+        int nodesLength;
+        /* offsets of the nodes already read, every node is the child of one parent only */
+        final BitSet visited = new BitSet();
+
+        Reader(ByteBuffer source) {
+            buffer = source.duplicate();
+            buffer.order(ByteOrder.BIG_ENDIAN);
+        }
+
+        LayoutTemplate read() throws IOException {
+            /* a truncated or corrupt buffer fails while reading, report it as any other malformed layout */
+            try {
+                return readLayout();
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("malformed binary layout", e);
+            }
+        }
+
+        private LayoutTemplate readLayout() throws IOException {
+            if (buffer.remaining() < 14 || buffer.getInt() != MAGIC)
+                throw new IOException("not a binary layout");
+            short version = buffer.getShort();
+            if (version < 1 || version > VERSION)
+                throw new IOException("unsupported binary layout version " + version);
+            int root = buffer.getInt();
+
+            int count = buffer.getInt();
+            /* every string takes at least its length */
+            if (count < 0 || count > buffer.remaining() / 4)
+                throw new IOException("invalid string count " + count);
+            stringOffsets = new int[count];
+            stringLengths = new int[count];
+            strings = new String[count];
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining())
+                    throw new IOException("invalid string length " + length);
+                stringOffsets[i] = buffer.position();
+                stringLengths[i] = length;
+                buffer.position(buffer.position() + length);
+            }
+            nodesStart = buffer.position();
+            nodesLength = buffer.limit() - nodesStart;
+
+            if (root < 0 || root >= nodesLength)
+                throw new IOException("invalid root offset " + root);
+            return compiler.build(readNode(root));
+        }
+
+        private String string(int index) throws IOException {
+            if (index < 0 || index >= strings.length)
+                throw new IOException("invalid string index " + index);
+            String string = strings[index];
+            if (string == null) {
+                ByteBuffer bytes = buffer.duplicate();
+                bytes.limit(stringOffsets[index] + stringLengths[index]);
+                bytes.position(stringOffsets[index]);
+                string = UTF_8.decode(bytes).toString();
+                strings[index] = string;
+            }
+            return string;
+        }
+
+        /**
+         * @param offset : offset of the node in nodes section, children are written before their parent
+         *               so their offsets are lower, which also rules out cycles. A node read twice is shared by
+         *               two parents, which the writer never does, rejected so the tree cannot grow exponentially
+         */
+        private LayoutTemplate.Node readNode(int offset) throws IOException {
+            if (visited.get(offset))
+                throw new IOException("node at " + offset + " has more than one parent");
+            visited.set(offset);
+            buffer.position(nodesStart + offset);
+            String widget = string(buffer.getInt());
+            int count = buffer.getShort();
+            if (count < 0)
+                throw new IOException("invalid properties count " + count);
+            List<DynamicProperty> properties = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                DynamicProperty p = readProperty();
+                if (p.isValid())
+                    properties.add(p);
+            }
+            int childCount = buffer.getShort();
+            if (childCount < 0)
+                throw new IOException("invalid children count " + childCount);
+            int[] childOffsets = new int[childCount];
+            for (int i = 0; i < childOffsets.length; i++) {
+                childOffsets[i] = buffer.getInt();
+                if (childOffsets[i] < 0 || childOffsets[i] >= offset)
+                    throw new IOException("invalid child offset " + childOffsets[i] + " of node at " + offset);
+            }
+            List<LayoutTemplate.Node> children = new ArrayList<>(childOffsets.length);
+            for (int childOffset : childOffsets) {
+                children.add(readNode(childOffset));
+            }
+            return compiler.createNode(widget, properties, children);
+        }
+
+        private DynamicProperty readProperty() throws IOException {
+            int nameOrdinal = buffer.get() & 0xFF;
+            NAME name = NAME.NO_VALID;
+            String customName = null;
+            if (nameOrdinal == CUSTOM_NAME) {
+                customName = string(buffer.getInt());
+            } else if (nameOrdinal < NAMES.length) {
+                name = NAMES[nameOrdinal];
+            } else {
+                throw new IOException("unknown property name " + nameOrdinal);
+            }
+            int typeOrdinal = buffer.get() & 0xFF;
+            boolean bound = (typeOrdinal & BOUND) != 0;
+            typeOrdinal &= ~BOUND;
+            if (typeOrdinal >= TYPES.length)
+                throw new IOException("unknown property type " + typeOrdinal);
+            TYPE type = TYPES[typeOrdinal];
+            if (bound)
+                return new DynamicProperty(customName != null ? customName : name.name(), type.name(), string(buffer.getInt()));
+
+            Object value;
+            switch (type) {
+                case INTEGER:
+                case COLOR:
+                    value = buffer.getInt();
+                    break;
+                case FLOAT:
+                    value = buffer.getFloat();
+                    break;
+                case BOOLEAN:
+                    value = buffer.get() != 0;
+                    break;
+                case DIMEN: {
+                    int unit = buffer.get();
+                    value = new Dimension(unit, buffer.getFloat());
+                }
+                break;
+                case BASE64: {
+                    int length = buffer.getInt();
+                    if (length < 0 || length > buffer.remaining())
+                        throw new IOException("invalid image length " + length);
+                    /* the image keeps a slice of the buffer, the bytes are not copied */
+                    ByteBuffer image = buffer.slice();
+                    image.limit(length);
+                    buffer.position(buffer.position() + length);
+                    value = Base64Image.create(image);
+                }
+                break;
+                case DRAWABLE:
+                case JSON:
+                    try {
+                        /* convert as json does, to build the drawable */
+                        JSONObject json = new JSONObject(string(buffer.getInt()));
+                        return new DynamicProperty(customName != null ? customName : name.name(), type.name(), json);
+                    } catch (JSONException e) {
+                        e.printStackTrace();
+                        value = null;
+                    }
+                    break;
+                default:
+                    value = string(buffer.getInt());
+                    break;
+            }
+            return new DynamicProperty(name, customName, type, value);
+        }
+    }
+}
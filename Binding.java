@@ -0,0 +1,107 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Value of a property with placeholders, compiled once with the template.
+ * e.g. "${item.title}", "${item.price} EUR", "${item.seller.name}"
+ *
+ * Paths are resolved in the data that is bound, "item" is the data itself so "${item.title}" and "${title}" are the same.
+ * Missing values are empty strings.
+ */
+final class Binding {
+
+    private static final String START = "${";
+    private static final String END = "}";
+    private static final String ITEM = "item";
+
+    /** the value as set in layout */
+    final String text;
+    /* literal parts, parts.length == paths.length + 1 */
+    private final String[] parts;
+    /* for every placeholder the keys of its path */
+    private final String[][] paths;
+
+    private Binding(String text, String[] parts, String[][] paths) {
+        this.text = text;
+        this.parts = parts;
+        this.paths = paths;
+    }
+
+    /**
+     * @param text : value of property as set in layout
+     * @return the compiled binding or null if value has no placeholder
+     */
+    static Binding parse(@NonNull String text) {
+        int start = text.indexOf(START);
+        if (start < 0)
+            return null;
+        List<String> parts = new ArrayList<>();
+        List<String[]> paths = new ArrayList<>();
+        int offset = 0;
+        while (start >= 0) {
+            int end = text.indexOf(END, start + START.length());
+            if (end < 0)
+                break;
+            parts.add(text.substring(offset, start));
+            paths.add(path(text.substring(start + START.length(), end).trim()));
+            offset = end + END.length();
+            start = text.indexOf(START, offset);
+        }
+        if (paths.isEmpty())
+            return null;
+        parts.add(text.substring(offset));
+        return new Binding(text, parts.toArray(new String[parts.size()]), paths.toArray(new String[paths.size()][]));
+    }
+
+    private static String[] path(String expression) {
+        String[] keys = expression.split("\\.");
+        if (keys.length > 1 && keys[0].equals(ITEM)) {
+            String[] relative = new String[keys.length - 1];
+            System.arraycopy(keys, 1, relative, 0, relative.length);
+            return relative;
+        }
+        if (keys.length == 1 && keys[0].equals(ITEM))
+            return new String[0];
+        return keys;
+    }
+
+    /**
+     * @param data : the data to bind
+     * @return the value with the placeholders replaced by data
+     */
+    String evaluate(@NonNull JSONObject data) {
+        if (paths.length == 1 && parts[0].isEmpty() && parts[1].isEmpty())
+            return valueOf(data, paths[0]);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < paths.length; i++) {
+            builder.append(parts[i]).append(valueOf(data, paths[i]));
+        }
+        return builder.append(parts[paths.length]).toString();
+    }
+
+    private static String valueOf(JSONObject data, String[] path) {
+        Object value = data;
+        for (String key : path) {
+            if (!(value instanceof JSONObject))
+                return "";
+            value = ((JSONObject) value).opt(key);
+        }
+        return value == null || value == JSONObject.NULL ? "" : value.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Binding && text.equals(((Binding) o).text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+}
@@ -0,0 +1,82 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.json.JSONObject;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The views of a tree that have properties with placeholders and their nodes, recorded when the tree is created
+ * so binding data does not walk the tree or the template.
+ * Views are weak references, the bound views are kept with the state of the tree that is mapped by its root view
+ * and must not keep the root alive.
+ */
+final class BoundViews {
+
+    private final List<WeakReference<View>> views;
+    private final List<LayoutTemplate.Node> nodes;
+
+    BoundViews(int capacity) {
+        views = new ArrayList<>(capacity);
+        nodes = new ArrayList<>(capacity);
+    }
+
+    void add(View view, LayoutTemplate.Node node) {
+        views.add(new WeakReference<>(view));
+        nodes.add(node);
+    }
+
+    /**
+     * find the bound views of a tree that created from the template
+     * @param root : view of the root node
+     * @param node : root node of the template
+     */
+    void collect(View root, LayoutTemplate.Node node) {
+        /* lazy subtrees add their views when they are created */
+        if (root instanceof DynamicViewStub)
+            return;
+        if (node.bound)
+            add(root, node);
+        if (!(root instanceof ViewGroup))
+            return;
+        ViewGroup viewGroup = (ViewGroup) root;
+        /* children that failed to create have no view, positions do not match */
+        if (viewGroup.getChildCount() != node.children.length)
+            return;
+        for (int i = 0; i < node.children.length; i++) {
+            collect(viewGroup.getChildAt(i), node.children[i]);
+        }
+    }
+
+    /**
+     * apply the bound properties with the values of data
+     */
+    void bind(@NonNull JSONObject data) {
+        for (int v = 0; v < views.size(); v++) {
+            View view = views.get(v).get();
+            /* removed from the tree and collected */
+            if (view == null)
+                continue;
+            LayoutTemplate.Node node = nodes.get(v);
+            PropertyApplier[] appliers = node.appliersFor(view.getClass());
+            for (int i = 0; i < node.properties.length; i++) {
+                DynamicProperty property = node.properties[i];
+                if (appliers[i] == null || !property.isBound())
+                    continue;
+                DynamicProperty value = property.bind(data);
+                if (!value.isValid())
+                    continue;
+                try {
+                    appliers[i].apply(view, value);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.avocarrot.json2view;
+
+/**
+ * A dimen as set in json, its unit and value, e.g. 12dp.
+ * Kept as is in templates and converted to pixels for the Context of the view, see {@link DimensionResolver}
+ */
+final class Dimension {
+
+    static final int UNIT_PX = 0;
+    static final int UNIT_DP = 1;
+    static final int UNIT_SP = 2;
+    /* percent of device width */
+    static final int UNIT_PERCENT = 3;
+    static final int UNIT_MATCH_PARENT = 4;
+    static final int UNIT_WRAP_CONTENT = 5;
+
+    final int unit;
+    final float value;
+
+    Dimension(int unit, float value) {
+        this.unit = unit;
+        this.value = value;
+    }
+
+    /**
+     * @param dimen : dimen as string, e.g. 12dp, 14sp, 3px, 50%, match_parent, wrap_content or 3 (as pixel)
+     * @throws NumberFormatException if dimen is not valid
+     */
+    static Dimension parse(String dimen) {
+        if (dimen.endsWith("dp"))
+            return new Dimension(UNIT_DP, Float.parseFloat(dimen.substring(0, dimen.length() - 2)));
+        else if (dimen.endsWith("sp"))
+            return new Dimension(UNIT_SP, Float.parseFloat(dimen.substring(0, dimen.length() - 2)));
+        else if (dimen.endsWith("px"))
+            return new Dimension(UNIT_PX, Integer.parseInt(dimen.substring(0, dimen.length() - 2)));
+        else if (dimen.endsWith("%"))
+            return new Dimension(UNIT_PERCENT, Float.parseFloat(dimen.substring(0, dimen.length() - 1)));
+        else if (dimen.equalsIgnoreCase("match_parent"))
+            return new Dimension(UNIT_MATCH_PARENT, 0);
+        else if (dimen.equalsIgnoreCase("wrap_content"))
+            return new Dimension(UNIT_WRAP_CONTENT, 0);
+        else
+            return new Dimension(UNIT_PX, Integer.parseInt(dimen));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Dimension))
+            return false;
+        Dimension other = (Dimension) o;
+        return unit == other.unit && Float.compare(value, other.value) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * unit + Float.floatToIntBits(value);
+    }
+
+    @Override
+    public String toString() {
+        return value + "/" + unit;
+    }
+}
@@ -0,0 +1,94 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.support.annotation.NonNull;
+import android.util.DisplayMetrics;
+import android.view.ViewGroup;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Convert dimens to pixels with the display metrics of a Context, see {@link DynamicProperty#getValueDimen(Context)}.
+ *
+ * The metrics are copied once for every Resources, so converting a dimen does not look them up again.
+ * When they change (rotation, font scale, density) a new resolver is created with the new metrics, so
+ * cached templates are resolved for the current configuration without parsing their json again,
+ * see {@link DynamicView#applyDimensions(android.view.View)} for views that already created.
+ */
+final class DimensionResolver {
+
+    private static final Map<Resources, DimensionResolver> sResolvers =
+            Collections.synchronizedMap(new WeakHashMap<Resources, DimensionResolver>());
+    /* the resolver used last, views of an inflation share their Resources */
+    private static volatile DimensionResolver sLast;
+
+    private final WeakReference<Resources> resources;
+    private final float density;
+    private final float scaledDensity;
+    private final int widthPixels;
+
+    private DimensionResolver(Resources resources, DisplayMetrics metrics) {
+        this.resources = new WeakReference<>(resources);
+        this.density = metrics.density;
+        this.scaledDensity = metrics.scaledDensity;
+        this.widthPixels = metrics.widthPixels;
+    }
+
+    /**
+     * @param context : context of the view
+     * @return the resolver for the current metrics of context
+     */
+    static DimensionResolver of(@NonNull Context context) {
+        return of(context.getResources());
+    }
+
+    /**
+     * @param resources : resources of the view
+     * @return the resolver for the current metrics of resources
+     */
+    static DimensionResolver of(@NonNull Resources resources) {
+        DisplayMetrics metrics = resources.getDisplayMetrics();
+        DimensionResolver last = sLast;
+        if (last != null && last.resources.get() == resources && last.matches(metrics))
+            return last;
+        DimensionResolver resolver = sResolvers.get(resources);
+        if (resolver == null || !resolver.matches(metrics)) {
+            resolver = new DimensionResolver(resources, metrics);
+            sResolvers.put(resources, resolver);
+        }
+        sLast = resolver;
+        return resolver;
+    }
+
+    /**
+     * @return true if metrics are the ones that the resolver copied
+     */
+    private boolean matches(DisplayMetrics metrics) {
+        return metrics.density == density && metrics.scaledDensity == scaledDensity && metrics.widthPixels == widthPixels;
+    }
+
+    /**
+     * @param dimension : dimen as set in json
+     * @return the dimen in pixels, or MATCH_PARENT / WRAP_CONTENT
+     */
+    float resolve(@NonNull Dimension dimension) {
+        switch (dimension.unit) {
+            case Dimension.UNIT_DP:
+                return dimension.value * density;
+            case Dimension.UNIT_SP:
+                return dimension.value * scaledDensity;
+            case Dimension.UNIT_PERCENT:
+                return (int)(dimension.value/100f * widthPixels);
+            case Dimension.UNIT_MATCH_PARENT:
+                return ViewGroup.LayoutParams.MATCH_PARENT;
+            case Dimension.UNIT_WRAP_CONTENT:
+                return ViewGroup.LayoutParams.WRAP_CONTENT;
+            default:
+                return dimension.value;
+        }
+    }
+}
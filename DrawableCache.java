@@ -0,0 +1,194 @@
+package com.avocarrot.json2view;
+
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.graphics.drawable.StateListDrawable;
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Build the drawables of DRAWABLE properties once per spec and keep their ConstantState,
+ * every view gets a new drawable that shares the state.
+ *
+ * Spec of a gradient : {"COLOR": "#ff0000", "CORNER": "4dp" or "4dp|4dp|0|0|...", "STROKECOLOR": "#000000", "STROKESIZE": "1dp"}
+ * Spec of a state list : a gradient spec for the default state, with gradient specs for states
+ * {"COLOR": "#ffffff", "PRESSED": {"COLOR": "#eeeeee"}, "SELECTED": {...}, "FOCUSED": {...}, "CHECKED": {...}, "DISABLED": {...}}
+ */
+public class DrawableCache {
+
+    private static final String[] GRADIENT_KEYS = {"COLOR", "CORNER", "STROKECOLOR", "STROKESIZE"};
+    /* states in the order they are matched */
+    private static final String[] STATE_KEYS = {"PRESSED", "SELECTED", "CHECKED", "FOCUSED", "DISABLED"};
+    private static final int[][] STATE_SETS = {
+            {android.R.attr.state_pressed},
+            {android.R.attr.state_selected},
+            {android.R.attr.state_checked},
+            {android.R.attr.state_focused},
+            {-android.R.attr.state_enabled}
+    };
+
+    private static final int MAX_DRAWABLES = 128;
+
+    private static final LruCache<String, Drawable.ConstantState> sCache = new LruCache<>(MAX_DRAWABLES);
+
+    /**
+     * remove all drawable states from cache
+     */
+    public static void evictAll() {
+        sCache.evictAll();
+    }
+
+    /**
+     * @param spec : the value of DRAWABLE property
+     * @return the state of the drawable, from cache or built now
+     * @throws JSONException if spec is not valid
+     */
+    static Drawable.ConstantState get(@NonNull JSONObject spec) throws JSONException {
+        String key = normalize(spec);
+        Drawable.ConstantState state = sCache.get(key);
+        if (state == null) {
+            boolean traced = Tracing.phases();
+            if (traced)
+                Tracing.begin("buildDrawable");
+            Drawable drawable;
+            try {
+                drawable = hasStates(spec) ? createStateList(spec) : createGradient(spec);
+            } finally {
+                if (traced)
+                    Tracing.end();
+            }
+            state = drawable.getConstantState();
+            if (state == null)
+                throw new JSONException("drawable has no constant state");
+            sCache.put(key, state);
+        }
+        return state;
+    }
+
+    /**
+     * @return the spec as string with known keys in fixed order and values trimmed in lowercase,
+     * so specs with the same content have the same key
+     */
+    static String normalize(JSONObject spec) {
+        StringBuilder builder = new StringBuilder();
+        appendGradient(builder, spec);
+        for (String state : STATE_KEYS) {
+            JSONObject stateSpec = spec.optJSONObject(state);
+            if (stateSpec != null) {
+                builder.append(state).append('{');
+                appendGradient(builder, stateSpec);
+                builder.append('}');
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void appendGradient(StringBuilder builder, JSONObject spec) {
+        for (String key : GRADIENT_KEYS) {
+            if (spec.has(key)) {
+                builder.append(key).append('=')
+                        .append(spec.optString(key).trim().toLowerCase(Locale.US).replace(" ", ""))
+                        .append(';');
+            }
+        }
+    }
+
+    private static boolean hasStates(JSONObject spec) {
+        for (String state : STATE_KEYS) {
+            if (spec.optJSONObject(state) != null)
+                return true;
+        }
+        return false;
+    }
+
+    private static Drawable createStateList(JSONObject spec) throws JSONException {
+        StateListDrawable drawable = new StateListDrawable();
+        for (int i = 0; i < STATE_KEYS.length; i++) {
+            JSONObject stateSpec = spec.optJSONObject(STATE_KEYS[i]);
+            if (stateSpec != null)
+                drawable.addState(STATE_SETS[i], get(stateSpec).newDrawable());
+        }
+        /* default state goes last, it matches every state */
+        drawable.addState(new int[0], get(defaultSpec(spec)).newDrawable());
+        return drawable;
+    }
+
+    /**
+     * @return the gradient keys of a state list spec
+     */
+    private static JSONObject defaultSpec(JSONObject spec) throws JSONException {
+        JSONObject defaultSpec = new JSONObject();
+        for (String key : GRADIENT_KEYS) {
+            if (spec.has(key))
+                defaultSpec.put(key, spec.get(key));
+        }
+        return defaultSpec;
+    }
+
+    private static GradientDrawable createGradient(JSONObject drawableProperties) {
+        GradientDrawable gd = new GradientDrawable();
+
+        try {
+            gd.setColor ( DynamicProperty.convertColor( drawableProperties.getString("COLOR") ) );
+        } catch (JSONException ignored) {}
+
+        if (drawableProperties.has("CORNER")) {
+            String cornerValues = null;
+            try {
+                cornerValues = drawableProperties.getString("CORNER");
+            } catch (JSONException ignored){}
+            if (!TextUtils.isEmpty(cornerValues)) {
+                if (cornerValues.contains("|")) {
+                    float[] corners = new float[8];
+                    Arrays.fill(corners, 0);
+                    String[] values = cornerValues.split("\\|");
+                    int count = Math.min(values.length, corners.length);
+                    for (int i=0 ; i<count ; i++) {
+                        try {
+                            corners[i] = toPixel(values[i]);
+                        } catch (Exception e) {
+                            corners[i] = 0f;
+                        }
+                    }
+                    gd.setCornerRadii(corners);
+                } else {
+                    try {
+                        gd.setCornerRadius( toPixel(cornerValues) );
+                    } catch (Exception e) {
+                        gd.setCornerRadius(0f);
+                    }
+                }
+            }
+
+        }
+        int strokeColor = 0x00FFFFFF;
+        int strokeSize = 0;
+        if (drawableProperties.has("STROKECOLOR")) {
+            try {
+                strokeColor = DynamicProperty.convertColor( drawableProperties.getString("STROKECOLOR") );
+            } catch (JSONException ignored) {}
+        }
+        if (drawableProperties.has("STROKESIZE")) {
+            try {
+                strokeSize = (int) toPixel( drawableProperties.getString("STROKESIZE") );
+            } catch (JSONException ignored) {}
+        }
+        gd.setStroke(strokeSize, strokeColor);
+        return gd;
+    }
+
+    /**
+     * drawables are shared by every Context, their dimens are converted with the system metrics
+     */
+    private static float toPixel(String dimen) {
+        return DimensionResolver.of(Resources.getSystem()).resolve(Dimension.parse(dimen));
+    }
+}
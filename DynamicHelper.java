@@ -12,20 +12,14 @@ import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
 
 import timber.log.Timber;
 
@@ -40,121 +34,19 @@ class DynamicHelper {
      *
      * @param view          : view
      * @param properties    : list of properties
+     * @param appliers      : for every property its applier for the class of the view or null to skip it, see {@link PropertyAppliers}
      */
-    static String applyStyleProperties(@NonNull View view, List<DynamicProperty> properties) {
-        String id = "";
-
-        for (DynamicProperty dynProp : properties) {
-            switch (dynProp.name) {
-                case ID:
-                    id = dynProp.getValueString();
-                    break;
-                case BACKGROUND:
-                    applyBackground(view, dynProp);
-                    break;
-                case TEXT:
-                    applyText(view, dynProp);
-                    break;
-                case TEXTCOLOR:
-                    applyTextColor(view, dynProp);
-                    break;
-                case TEXTSIZE:
-                    applyTextSize(view, dynProp);
-                    break;
-                case TEXTSTYLE:
-                    applyTextStyle(view, dynProp);
-                    break;
-                case TEXTALLCAPS:
-                    applyTextAllCaps(view, dynProp);
-                    break;
-                case PADDING:
-                    applyPadding(view, dynProp);
-                    break;
-                case PADDING_LEFT:
-                    applyPadding(view, dynProp, 0);
-                    break;
-                case PADDING_TOP:
-                    applyPadding(view, dynProp, 1);
-                    break;
-                case PADDING_RIGHT:
-                    applyPadding(view, dynProp, 2);
-                    break;
-                case PADDING_BOTTOM:
-                    applyPadding(view, dynProp, 3);
-                    break;
-                case MINWIDTH:
-                    applyMinWidth(view, dynProp);
-                    break;
-                case MINHEIGTH:
-                    applyMinHeight(view, dynProp);
-                    break;
-                case ELLIPSIZE:
-                    applyEllipsize(view, dynProp);
-                    break;
-                case MAXLINES:
-                    applyMaxLines(view, dynProp);
-                    break;
-                case ORIENTATION:
-                    applyOrientation(view, dynProp);
-                    break;
-                case SUM_WEIGHT:
-                    applyWeightSum(view, dynProp);
-                    break;
-                case GRAVITY:
-                    applyGravity(view, dynProp);
-                    break;
-                case SRC:
-                    applySrc(view, dynProp);
-                    break;
-                case SCALETYPE:
-                    applyScaleType(view, dynProp);
-                    break;
-                case ADJUSTVIEWBOUNDS:
-                    applyAdjustBounds(view, dynProp);
-                    break;
-                case DRAWABLELEFT:
-                    applyCompoundDrawable(view, dynProp, 0);
-                    break;
-                case DRAWABLETOP:
-                    applyCompoundDrawable(view, dynProp, 1);
-                    break;
-                case DRAWABLERIGHT:
-                    applyCompoundDrawable(view, dynProp, 2);
-                    break;
-                case DRAWABLEBOTTOM:
-                    applyCompoundDrawable(view, dynProp, 3);
-                    break;
-                case ENABLED:
-                    applyEnabled(view, dynProp);
-                    break;
-                case SELECTED:
-                    applySelected(view, dynProp);
-                    break;
-                case CLICKABLE:
-                    applyClickable(view, dynProp);
-                    break;
-                case SCALEX:
-                    applyScaleX(view, dynProp);
-                    break;
-                case SCALEY:
-                    applyScaleY(view, dynProp);
-                    break;
-                case TAG:
-                    applyTag(view, dynProp);
-                    break;
-                case FUNCTION:
-                    applyFunction(view, dynProp);
-                    break;
-                case VISIBILITY:
-                    applyVisibility(view, dynProp);
-                    break;
-                case ONCLICK :
-                    DynamicHelper dv = new DynamicHelper();
-                    dv.applyOnClick(view, dynProp);
-                    break;
+    static void applyStyleProperties(@NonNull View view, DynamicProperty[] properties, PropertyApplier[] appliers) {
+        for (int i = 0; i < properties.length; i++) {
+            /* bound properties apply when data is bound */
+            if (appliers[i] == null || properties[i].isBound())
+                continue;
+            try {
+                appliers[i].apply(view, properties[i]);
+            } catch (Exception e) {
+                e.printStackTrace();
             }
         }
-        return id;
     }
 
     /**
@@ -162,118 +54,126 @@ class DynamicHelper {
      *
      * @param view       : view
      * @param properties : layout properties to apply
+     * @param refs       : for every property the index of the id it references or -1
      * @param viewGroup  : parent view
-     * @param ids        : hashmap of ids <String, Integer> (string as setted in json, int that we use in layout)
+     * @param viewIds    : ids that we use in layout, indexed by the id index of the template
      */
-    static void applyLayoutProperties(View view, List<DynamicProperty> properties, ViewGroup viewGroup, HashMap<String, Integer> ids) {
+    static void applyLayoutProperties(View view, DynamicProperty[] properties, int[] refs, ViewGroup viewGroup, int[] viewIds) {
         if (viewGroup == null)
             return;
-        ViewGroup.LayoutParams params = createLayoutParams(viewGroup);
-        //Layout.LayoutParams params = createLayoutParams(view);
-
-        for (DynamicProperty dynProp : properties) {
+        /* reuse the default LayoutParams that set when the view created, create them only if missing */
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params == null)
+            params = createLayoutParams(viewGroup);
+
+        for (int i = 0; i < properties.length; i++) {
+            DynamicProperty dynProp = properties[i];
+            /* the actual id of the view that property references, 0 if view not created (yet) */
+            int anchor = refs[i] < 0 ? 0 : viewIds[refs[i]];
+            if (anchor == 0 && LayoutTemplate.isReference(dynProp.getName()))
+                continue;
             try {
-                switch (dynProp.name) {
+                switch (dynProp.getName()) {
                     case LAYOUT_HEIGHT:
-                        params.height = dynProp.getValueInt();
+                        params.height = (int) dynProp.getValueDimen(view.getContext());
                         break;
                     case LAYOUT_WIDTH:
-                        params.width = dynProp.getValueInt();
+                        params.width = (int) dynProp.getValueDimen(view.getContext());
                         break;
                     case LAYOUT_MARGIN:
                         if (params instanceof ViewGroup.MarginLayoutParams) {
                             ViewGroup.MarginLayoutParams p = ((ViewGroup.MarginLayoutParams) params);
-                            p.bottomMargin = p.topMargin = p.leftMargin = p.rightMargin = dynProp.getValueInt();
+                            p.bottomMargin = p.topMargin = p.leftMargin = p.rightMargin = (int) dynProp.getValueDimen(view.getContext());
                         }
                         break;
                     case LAYOUT_MARGINLEFT:
                         if (params instanceof ViewGroup.MarginLayoutParams) {
-                            ((ViewGroup.MarginLayoutParams) params).leftMargin = dynProp.getValueInt();
+                            ((ViewGroup.MarginLayoutParams) params).leftMargin = (int) dynProp.getValueDimen(view.getContext());
                         }
                         break;
                     case LAYOUT_MARGINTOP:
                         if (params instanceof ViewGroup.MarginLayoutParams) {
-                            ((ViewGroup.MarginLayoutParams) params).topMargin = dynProp.getValueInt();
+                            ((ViewGroup.MarginLayoutParams) params).topMargin = (int) dynProp.getValueDimen(view.getContext());
                         }
                         break;
                     case LAYOUT_MARGINRIGHT:
                         if (params instanceof ViewGroup.MarginLayoutParams) {
-                            ((ViewGroup.MarginLayoutParams) params).rightMargin = dynProp.getValueInt();
+                            ((ViewGroup.MarginLayoutParams) params).rightMargin = (int) dynProp.getValueDimen(view.getContext());
                         }
                         break;
                     case LAYOUT_MARGINBOTTOM:
                         if (params instanceof ViewGroup.MarginLayoutParams) {
-                            ((ViewGroup.MarginLayoutParams) params).bottomMargin = dynProp.getValueInt();
+                            ((ViewGroup.MarginLayoutParams) params).bottomMargin = (int) dynProp.getValueDimen(view.getContext());
                         }
                         break;
                     case LAYOUT_ABOVE:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ABOVE, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ABOVE, anchor);
                         }
                         break;
                     case LAYOUT_BELOW:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.BELOW, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.BELOW, anchor);
                         }
                         break;
                     case LAYOUT_TOLEFTOF:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.LEFT_OF, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.LEFT_OF, anchor);
                         }
                         break;
                     case LAYOUT_TORIGHTOF:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.RIGHT_OF, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.RIGHT_OF, anchor);
                         }
                         break;
                     case LAYOUT_TOSTARTOF:
                         if (params instanceof RelativeLayout.LayoutParams &&
                                 Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.START_OF, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.START_OF, anchor);
                         }
                         break;
                     case LAYOUT_TOENDOF: {
                         if (params instanceof RelativeLayout.LayoutParams && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.END_OF, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.END_OF, anchor);
                         }
                     }
                     break;
                     case LAYOUT_ALIGNBASELINE:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_BASELINE, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_BASELINE, anchor);
                         }
                         break;
                     case LAYOUT_ALIGNLEFT:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_LEFT, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_LEFT, anchor);
                         }
                         break;
                     case LAYOUT_ALIGNTOP:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_TOP, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_TOP, anchor);
                         }
                         break;
                     case LAYOUT_ALIGNRIGHT:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_RIGHT, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_RIGHT, anchor);
                         }
                         break;
                     case LAYOUT_ALIGNBOTTOM:
                         if (params instanceof RelativeLayout.LayoutParams) {
-                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_BOTTOM, ids.get(dynProp.getValueString()));
+                            ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_BOTTOM, anchor);
                         }
                         break;
                     case LAYOUT_ALIGNSTART:
                         if (params instanceof RelativeLayout.LayoutParams) {
                             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-                                ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_START, ids.get(dynProp.getValueString()));
+                                ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_START, anchor);
                             }
                         }
                         break;
                     case LAYOUT_ALIGNEND:
                         if (params instanceof RelativeLayout.LayoutParams) {
                             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-                                ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_END, ids.get(dynProp.getValueString()));
+                                ((RelativeLayout.LayoutParams) params).addRule(RelativeLayout.ALIGN_END, anchor);
                             }
                         }
                         break;
@@ -332,7 +232,7 @@ class DynamicHelper {
                         }
                         break;
                     case LAYOUT_GRAVITY:
-                        switch (dynProp.type) {
+                        switch (dynProp.getType()) {
                             case INTEGER:
                                 if (params instanceof LinearLayout.LayoutParams) {
                                     ((LinearLayout.LayoutParams) params).gravity = dynProp.getValueInt();
@@ -347,7 +247,7 @@ class DynamicHelper {
                         }
                         break;
                     case LAYOUT_WEIGHT:
-                        switch (dynProp.type) {
+                        switch (dynProp.getType()) {
                             case FLOAT:
                                 if (params instanceof LinearLayout.LayoutParams) {
                                     ((LinearLayout.LayoutParams) params).weight = dynProp.getValueFloat();
@@ -364,23 +264,19 @@ class DynamicHelper {
         view.setLayoutParams(params);
     }
 
+    /**
+     * create the LayoutParams of the viewGroup with WRAP_CONTENT size.
+     * The factory of every viewGroup class is resolved once and kept in {@link #sLayoutParamsFactories}
+     */
     static ViewGroup.LayoutParams createLayoutParams(ViewGroup viewGroup) {
         ViewGroup.LayoutParams params = null;
         if (viewGroup!=null) {
-            try {
-                /* find parent viewGroup and create LayoutParams of that class */
-                Class layoutClass = viewGroup.getClass();
-                while (!classExists(layoutClass.getName() + "$LayoutParams")) {
-                    layoutClass = layoutClass.getSuperclass();
-                }
-                String layoutParamsClassname = layoutClass.getName() + "$LayoutParams";
-                Class layoutParamsClass = Class.forName(layoutParamsClassname);
-                /* create the actual layoutParams object */
-                params = (ViewGroup.LayoutParams) layoutParamsClass.getConstructor(Integer.TYPE, Integer.TYPE)
-                        .newInstance(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
-            } catch (Exception e) {
-                e.printStackTrace();
+            LayoutParamsFactory factory = sLayoutParamsFactories.get(viewGroup.getClass());
+            if (factory == null) {
+                factory = resolveLayoutParamsFactory(viewGroup.getClass());
+                sLayoutParamsFactories.put(viewGroup.getClass(), factory);
             }
+            params = factory.create(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
         }
         if (params == null) {
             params = new ViewGroup.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
@@ -389,30 +285,102 @@ class DynamicHelper {
         return params;
     }
 
+    /**
+     * create LayoutParams of a viewGroup class
+     */
+    private interface LayoutParamsFactory {
+        ViewGroup.LayoutParams create(int width, int height);
+    }
+
+    /* resolved factories by viewGroup class, direct factories for the common layouts */
+    private static final ConcurrentHashMap<Class, LayoutParamsFactory> sLayoutParamsFactories = new ConcurrentHashMap<>();
+
+    static {
+        sLayoutParamsFactories.put(LinearLayout.class, new LayoutParamsFactory() {
+            @Override
+            public ViewGroup.LayoutParams create(int width, int height) {
+                return new LinearLayout.LayoutParams(width, height);
+            }
+        });
+        sLayoutParamsFactories.put(RelativeLayout.class, new LayoutParamsFactory() {
+            @Override
+            public ViewGroup.LayoutParams create(int width, int height) {
+                return new RelativeLayout.LayoutParams(width, height);
+            }
+        });
+        sLayoutParamsFactories.put(FrameLayout.class, new LayoutParamsFactory() {
+            @Override
+            public ViewGroup.LayoutParams create(int width, int height) {
+                return new FrameLayout.LayoutParams(width, height);
+            }
+        });
+    }
+
+    /**
+     * find the closest class in hierarchy that has a direct factory or declares LayoutParams
+     * and return a factory for it. Reflection happens only once per viewGroup class
+     */
+    private static LayoutParamsFactory resolveLayoutParamsFactory(Class viewGroupClass) {
+        Class layoutClass = viewGroupClass;
+        while (layoutClass != null) {
+            LayoutParamsFactory direct = sLayoutParamsFactories.get(layoutClass);
+            if (direct != null)
+                return direct;
+            if (classExists(layoutClass.getName() + "$LayoutParams"))
+                break;
+            layoutClass = layoutClass.getSuperclass();
+        }
+        Constructor constructor = null;
+        if (layoutClass != null) {
+            try {
+                /* find parent viewGroup and create LayoutParams of that class */
+                InflationMetrics.reflectiveLookup();
+                Class layoutParamsClass = Class.forName(layoutClass.getName() + "$LayoutParams");
+                constructor = layoutParamsClass.getConstructor(Integer.TYPE, Integer.TYPE);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        final Constructor layoutParamsConstructor = constructor;
+        return new LayoutParamsFactory() {
+            @Override
+            public ViewGroup.LayoutParams create(int width, int height) {
+                if (layoutParamsConstructor == null)
+                    return null;
+                try {
+                    /* create the actual layoutParams object */
+                    return (ViewGroup.LayoutParams) layoutParamsConstructor.newInstance(width, height);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                return null;
+            }
+        };
+    }
+
     /**
      * apply background in view. possible type :
      * - COLOR
      * - REF => search for that drawable in resources
      * - BASE64 => convert base64 to bitmap and apply in view
      */
-    private static void applyBackground(View view, DynamicProperty property) {
+    static void applyBackground(View view, DynamicProperty property) {
         if (view == null || view.getContext() == null) {
             return;
         }
-        switch (property.type) {
+        switch (property.getType()) {
             case COLOR:
                 view.setBackgroundColor(property.getValueColor());
                 break;
             case COLOR_REF:
-                int colorId  = getResourceById(view.getContext(), normalizeTypeREF(property.getValueString()), "color");
+                int colorId  = getResourceById(view.getContext(), property, "color");
                 view.setBackgroundColor(getResource(view).getColor(colorId));
                 break;
             case REF:
-                view.setBackgroundResource(getResourceById(view.getContext(),
-                        normalizeTypeREF(property.getValueString()), "drawable"));
+                view.setBackgroundResource(getResourceById(view.getContext(), property, "drawable"));
                 break;
             case BASE64:
-                view.setBackground(property.getValueBitmapDrawable());
+                view.setBackground(property.getValueBitmapDrawable(view.getResources()));
                 break;
             case DRAWABLE:
                 view.setBackground(property.getValueGradientDrawable());
@@ -424,11 +392,11 @@ class DynamicHelper {
     /**
      * apply padding in view
      */
-    private static void applyPadding(View view, DynamicProperty property) {
+    static void applyPadding(View view, DynamicProperty property) {
         if (view != null) {
-            switch (property.type) {
+            switch (property.getType()) {
                 case DIMEN: {
-                    int padding = property.getValueInt();
+                    int padding = (int) property.getValueDimen(view.getContext());
                     view.setPadding(padding, padding, padding, padding);
                 }
                 break;
@@ -439,9 +407,9 @@ class DynamicHelper {
     /**
      * apply padding in view
      */
-    private static void applyPadding(View view, DynamicProperty property, int position) {
+    static void applyPadding(View view, DynamicProperty property, int position) {
         if (view != null) {
-            switch (property.type) {
+            switch (property.getType()) {
                 case DIMEN: {
                     int[] padding = new int[] {
                             view.getPaddingLeft(),
@@ -449,7 +417,7 @@ class DynamicHelper {
                             view.getPaddingRight(),
                             view.getPaddingBottom()
                     };
-                    padding[position] = property.getValueInt();
+                    padding[position] = (int) property.getValueDimen(view.getContext());
                     view.setPadding(padding[0], padding[1], padding[2], padding[3]);
                 }
                 break;
@@ -460,10 +428,10 @@ class DynamicHelper {
     /**
      * apply minimum Width in view
      */
-    private static void applyMinWidth(View view, DynamicProperty property) {
+    static void applyMinWidth(View view, DynamicProperty property) {
         if (view != null) {
-            if (property.type == DynamicProperty.TYPE.DIMEN) {
-                view.setMinimumWidth(property.getValueInt());
+            if (property.getType() == DynamicProperty.TYPE.DIMEN) {
+                view.setMinimumWidth((int) property.getValueDimen(view.getContext()));
             }
         }
     }
@@ -471,10 +439,10 @@ class DynamicHelper {
     /**
      * apply minimum Height in view
      */
-    private static void applyMinHeight(View view, DynamicProperty property) {
+    static void applyMinHeight(View view, DynamicProperty property) {
         if (view != null) {
-            if (property.type == DynamicProperty.TYPE.DIMEN) {
-                view.setMinimumHeight(property.getValueInt());
+            if (property.getType() == DynamicProperty.TYPE.DIMEN) {
+                view.setMinimumHeight((int) property.getValueDimen(view.getContext()));
             }
         }
     }
@@ -482,9 +450,9 @@ class DynamicHelper {
     /**
      * apply enabled in view
      */
-    private static void applyEnabled(View view, DynamicProperty property) {
+    static void applyEnabled(View view, DynamicProperty property) {
         if (view != null) {
-            switch (property.type) {
+            switch (property.getType()) {
                 case BOOLEAN:
                     view.setEnabled(property.getValueBoolean());
                     break;
@@ -495,9 +463,9 @@ class DynamicHelper {
     /**
      * apply selected in view
      */
-    private static void applySelected(View view, DynamicProperty property) {
+    static void applySelected(View view, DynamicProperty property) {
         if (view != null) {
-            switch (property.type) {
+            switch (property.getType()) {
                 case BOOLEAN:
                     view.setSelected(property.getValueBoolean());
                     break;
@@ -507,9 +475,9 @@ class DynamicHelper {
     /**
      * apply clickable in view
      */
-    private static void applyClickable(View view, DynamicProperty property) {
+    static void applyClickable(View view, DynamicProperty property) {
         if (view != null) {
-            switch (property.type) {
+            switch (property.getType()) {
                 case BOOLEAN:
                     view.setClickable(property.getValueBoolean());
                     break;
@@ -520,10 +488,10 @@ class DynamicHelper {
     /**
      * apply selected in view
      */
-    private static void applyScaleX(View view, DynamicProperty property) {
+    static void applyScaleX(View view, DynamicProperty property) {
         if (view != null) {
-            switch (property.type) {
-                case BOOLEAN:
+            switch (property.getType()) {
+                case FLOAT:
                     view.setScaleX(property.getValueFloat());
                     break;
             }
@@ -533,10 +501,10 @@ class DynamicHelper {
     /**
      * apply selected in view
      */
-    private static void applyScaleY(View view, DynamicProperty property) {
+    static void applyScaleY(View view, DynamicProperty property) {
         if (view != null) {
-            switch (property.type) {
-                case BOOLEAN:
+            switch (property.getType()) {
+                case FLOAT:
                     view.setScaleY(property.getValueFloat());
                     break;
             }
@@ -546,11 +514,11 @@ class DynamicHelper {
     /**
      *  apply visibility in view
      */
-    private static void applyVisibility(View view, DynamicProperty property) {
+    static void applyVisibility(View view, DynamicProperty property) {
         if (view == null) {
             return;
         }
-        switch (property.type) {
+        switch (property.getType()) {
             case STRING: {
                 switch (property.getValueString()){
                     case "gone":
@@ -569,25 +537,24 @@ class DynamicHelper {
     }
 
     /**
-     * apply onTouch in View
+     * apply onTouch in View, the handler is resolved once by {@link ActionRegistry}
      */
-    private static void applyOnTouch(View view, final DynamicProperty property) {
+    static void applyOnTouch(View view, final DynamicProperty property) {
         if (view == null) {
             return;
         }
-        switch (property.type) {
+        switch (property.getType()) {
             case STRING:
+                final ActionRegistry.TouchAction action = ActionRegistry.getTouchAction(property.getValueString());
+                if (action == null) {
+                    Timber.w("no touch action %s", property.getValueString());
+                    break;
+                }
                 view.setOnTouchListener(new View.OnTouchListener() {
                     @Override
                     public boolean onTouch(View v, MotionEvent event) {
                         try {
-                            String properties[] = property.getValueString().split("\\|");
-                            Timber.d("%s ___ %s", properties[0], properties[1]);
-                            if (properties.length == 2) {
-                                Class c = Class.forName(properties[0]);
-                                Method method = c.getMethod(properties[1]);
-                                return (boolean) method.invoke(c.newInstance());
-                            }
+                            return action.onTouch(v, event);
                         } catch (Exception e) {
                             e.printStackTrace();
                         }
@@ -599,26 +566,24 @@ class DynamicHelper {
     }
 
     /**
-     * apply onClick in View
+     * apply onClick in View, the handler is resolved once by {@link ActionRegistry}
      */
-    private void applyOnClick(View view, final DynamicProperty property) {
+    static void applyOnClick(View view, final DynamicProperty property) {
         if (view == null) {
             return;
         }
-        switch (property.type) {
+        switch (property.getType()) {
             case STRING:
+                final ActionRegistry.Action action = ActionRegistry.getAction(property.getValueString());
+                if (action == null) {
+                    Timber.w("no action %s", property.getValueString());
+                    break;
+                }
                 view.setOnClickListener(new View.OnClickListener() {
                     @Override
                     public void onClick(View v) {
                         try {
-                            String properties[] = property.getValueString().split("\\|");
-                            Timber.d("%s ___ %s", properties[0], properties[1]);
-                            if (properties.length == 2) {
-                                Class c = Class.forName(properties[0]);
-                                Method method = c.getMethod(properties[1]);
-                                Object o = c.newInstance();
-                                method.invoke(c.newInstance());
-                            }
+                            action.run(v);
                         } catch (Exception e) {
                             e.printStackTrace();
                         }
@@ -634,103 +599,88 @@ class DynamicHelper {
      * - STRING : the actual string to set in textView
      * - REF : the name of string resource to apply in textView
      */
-    private static void applyText(View view, DynamicProperty property) {
-        if (view instanceof TextView) {
-            switch (property.type) {
-                case STRING:
-                    ((TextView) view).setText(property.getValueString());
-                    break;
-                case REF:
-                    ((TextView) view).setText(getResourceById(view.getContext(),
-                            normalizeTypeREF(property.getValueString()), "string"));
-                    break;
-            }
+    static void applyText(TextView view, DynamicProperty property) {
+        switch (property.getType()) {
+            case STRING:
+                view.setText(property.getValueString());
+                break;
+            case REF:
+                view.setText(getResourceById(view.getContext(), property, "string"));
+                break;
         }
     }
 
     /**
      * apply the color in textView
      */
-    private static void applyTextColor(View view, DynamicProperty property) {
-        if (view == null || view.getContext() == null) {
+    static void applyTextColor(TextView view, DynamicProperty property) {
+        if (view.getContext() == null) {
             return;
         }
-        if (view instanceof TextView) {
-            switch (property.type) {
-                case COLOR:
-                    ((TextView) view).setTextColor(property.getValueColor());
-                    break;
-                case COLOR_REF:
-                    int colorId = getResourceById(view.getContext(), normalizeTypeREF(property.getValueString()), "color");
-                    ((TextView) view).setTextColor(view.getContext().getResources().getColor(colorId));
-                    break;
-            }
+        switch (property.getType()) {
+            case COLOR:
+                view.setTextColor(property.getValueColor());
+                break;
+            case COLOR_REF:
+                int colorId = getResourceById(view.getContext(), property, "color");
+                view.setTextColor(view.getContext().getResources().getColor(colorId));
+                break;
         }
     }
 
     /**
      * apply the textSize in textView
      */
-    private static void applyTextSize(View view, DynamicProperty property) {
-        if (view instanceof TextView) {
-            switch (property.type) {
-                case DIMEN:
-                    ((TextView) view).setTextSize(TypedValue.COMPLEX_UNIT_PX, property.getValueFloat());
-                    break;
-                case REF:
-                    int dimenId = getResourceById(view.getContext(), normalizeTypeREF(property.getValueString()), "dimen");
-                    ((TextView) view).setTextSize(TypedValue.COMPLEX_UNIT_PX,
-                            view.getContext().getResources().getDimension(dimenId));
-                    break;
-            }
+    static void applyTextSize(TextView view, DynamicProperty property) {
+        switch (property.getType()) {
+            case DIMEN:
+                view.setTextSize(TypedValue.COMPLEX_UNIT_PX, property.getValueDimen(view.getContext()));
+                break;
+            case REF:
+                int dimenId = getResourceById(view.getContext(), property, "dimen");
+                view.setTextSize(TypedValue.COMPLEX_UNIT_PX,
+                        view.getContext().getResources().getDimension(dimenId));
+                break;
         }
     }
     /**
      * apply the textStyle in textView
      */
-    private static void applyTextStyle(View view, DynamicProperty property) {
-        if (view instanceof TextView) {
-            switch (property.type) {
-                case INTEGER:
-                    ((TextView) view).setTypeface(null, property.getValueInt());
-                    break;
-                case  STRING:
-                    ((TextView) view).setTypeface(null, (Integer) property.getValueInt(
-                            Typeface.class, property.getValueString().toUpperCase()));
-                    break;
-            }
+    static void applyTextStyle(TextView view, DynamicProperty property) {
+        switch (property.getType()) {
+            case INTEGER:
+                view.setTypeface(null, property.getValueInt());
+                break;
+            case  STRING:
+                view.setTypeface(null, (Integer) property.getValueInt(
+                        Typeface.class, property.getValueString().toUpperCase()));
+                break;
         }
     }
 
     /**
      * applu textAllCaps in textview
      */
-    private static void applyTextAllCaps(View view, DynamicProperty property) {
-        if (view instanceof TextView) {
-            switch (property.type) {
-                case BOOLEAN:
-                    ((TextView) view).setAllCaps(property.getValueBoolean());
-                    break;
-            }
+    static void applyTextAllCaps(TextView view, DynamicProperty property) {
+        switch (property.getType()) {
+            case BOOLEAN:
+                view.setAllCaps(property.getValueBoolean());
+                break;
         }
     }
 
     /**
      * apply ellipsize property in textView
      */
-    private static void applyEllipsize(View view, DynamicProperty property) {
-        if (view instanceof TextView) {
-            ((TextView) view).setEllipsize(TextUtils.TruncateAt.valueOf(property.getValueString().toUpperCase().trim()));
-        }
+    static void applyEllipsize(TextView view, DynamicProperty property) {
+        view.setEllipsize(TextUtils.TruncateAt.valueOf(property.getValueString().toUpperCase().trim()));
     }
 
     /**
      * apply maxLines property in textView
      */
-    private static void applyMaxLines(View view, DynamicProperty property) {
-        if (view instanceof TextView) {
-            ((TextView) view).setMaxLines(property.getValueInt());
-        }
+    static void applyMaxLines(TextView view, DynamicProperty property) {
+        view.setMaxLines(property.getValueInt());
     }
 
     /**
@@ -738,24 +688,27 @@ class DynamicHelper {
      * - INTEGER => valus of gravity in @link(Gravity.java)
      * - STRING => name of variable in @lin(Gravity.java)
      */
-    private static void applyGravity(View view, DynamicProperty property) {
-        if (view instanceof TextView) {
-            switch (property.type) {
-                case INTEGER:
-                    ((TextView) view).setGravity(property.getValueInt());
-                    break;
-                case STRING:
-                    ((TextView) view).setGravity((Integer) property.getValueInt(Gravity.class, property.getValueString().toUpperCase()));
-                    break;
-            }
+    static void applyGravity(TextView view, DynamicProperty property) {
+        switch (property.getType()) {
+            case INTEGER:
+                view.setGravity(property.getValueInt());
+                break;
+            case STRING:
+                view.setGravity((Integer) property.getValueInt(Gravity.class, property.getValueString().toUpperCase()));
+                break;
         }
-        if (view instanceof LinearLayout) {
-            switch (property.type) {
-                case STRING:
-                    int gravityId =(Integer) property.getValueInt(Gravity.class, property.getValueString().toUpperCase());
-                    ((LinearLayout)view).setGravity(gravityId);
-                    break;
-            }
+    }
+
+    /**
+     * apply gravity property in LinearLayout
+     * - STRING => name of variable in @lin(Gravity.java)
+     */
+    static void applyGravity(LinearLayout view, DynamicProperty property) {
+        switch (property.getType()) {
+            case STRING:
+                int gravityId =(Integer) property.getValueInt(Gravity.class, property.getValueString().toUpperCase());
+                view.setGravity(gravityId);
+                break;
         }
     }
 
@@ -771,26 +724,23 @@ class DynamicHelper {
      * - REF : drawable to load as compoundDrawable
      * - BASE64 : decode as base64 and set as CompoundDrawable
      */
-    private static void applyCompoundDrawable(View view, DynamicProperty property, int position) {
-        if (view instanceof TextView) {
-            TextView textView = (TextView) view;
-            Drawable[] d = textView.getCompoundDrawables();
-            switch (property.type) {
-                case REF:
-                    try {
-                        d[position] = view.getContext().getResources().getDrawable(
-                                getResourceById(view.getContext(), property.getValueString(),"drawable"));
-                    } catch (Exception ignored) {}
-                    break;
-                case BASE64:
-                    d[position] = property.getValueBitmapDrawable();
-                    break;
-                case DRAWABLE:
-                    d[position] = property.getValueGradientDrawable();
-                    break;
-            }
-            textView.setCompoundDrawablesWithIntrinsicBounds(d[0], d[1], d[2], d[3]);
+    static void applyCompoundDrawable(TextView view, DynamicProperty property, int position) {
+        Drawable[] d = view.getCompoundDrawables();
+        switch (property.getType()) {
+            case REF:
+                try {
+                    d[position] = view.getContext().getResources().getDrawable(
+                            getResourceById(view.getContext(), property, "drawable"));
+                } catch (Exception ignored) {}
+                break;
+            case BASE64:
+                d[position] = property.getValueBitmapDrawable(view.getResources());
+                break;
+            case DRAWABLE:
+                d[position] = property.getValueGradientDrawable();
+                break;
         }
+        view.setCompoundDrawablesWithIntrinsicBounds(d[0], d[1], d[2], d[3]);
     }
 
 
@@ -799,43 +749,37 @@ class DynamicHelper {
      * - REF => name of drawable
      * - BASE64 => decode value as base64 image
      */
-    private static void applySrc(View view, DynamicProperty property) {
-        if (view instanceof ImageView) {
-            switch (property.type) {
-                case REF:
-                    ((ImageView) view).setImageResource(
-                            getResourceById(view.getContext(), property.getValueString(), "drawable"));
-                    break;
-                case BASE64:
-                    ((ImageView) view).setImageBitmap(property.getValueBitmap());
-                    break;
-            }
+    static void applySrc(ImageView view, DynamicProperty property) {
+        switch (property.getType()) {
+            case REF:
+                view.setImageResource(
+                        getResourceById(view.getContext(), property, "drawable"));
+                break;
+            case BASE64:
+                view.setImageBitmap(property.getValueBitmap());
+                break;
         }
     }
 
     /**
      * apply scaleType property in ImageView
      */
-    private static void applyScaleType(View view, DynamicProperty property) {
-        if (view instanceof ImageView) {
-            switch (property.type) {
-                case STRING:
-                    ((ImageView) view).setScaleType(ImageView.ScaleType.valueOf(property.getValueString().toUpperCase()));
-                    break;
-            }
+    static void applyScaleType(ImageView view, DynamicProperty property) {
+        switch (property.getType()) {
+            case STRING:
+                view.setScaleType(ImageView.ScaleType.valueOf(property.getValueString().toUpperCase()));
+                break;
         }
     }
 
     /**
      * apply adjustBounds property in ImageView
      */
-    private static void applyAdjustBounds(View view, DynamicProperty property) {
-        if (view instanceof ImageView) {
-            switch (property.type) {
-                case BOOLEAN:
-                    ((ImageView) view).setAdjustViewBounds(property.getValueBoolean());
-                    break;
-            }
+    static void applyAdjustBounds(ImageView view, DynamicProperty property) {
+        switch (property.getType()) {
+            case BOOLEAN:
+                view.setAdjustViewBounds(property.getValueBoolean());
+                break;
         }
     }
 
@@ -844,94 +788,41 @@ class DynamicHelper {
      * - INTEGER => 0:Horizontal , 1:Vertical
      * - STRING
      */
-    private static void applyOrientation(View view, DynamicProperty property) {
-        if (view instanceof LinearLayout) {
-            switch (property.type) {
-                case INTEGER:
-                    ((LinearLayout) view).setOrientation(property.getValueInt() == 0 ? LinearLayout.HORIZONTAL : LinearLayout.VERTICAL);
-                    break;
-                case STRING:
-                    ((LinearLayout) view).setOrientation(property.getValueString().equalsIgnoreCase("HORIZONTAL") ? LinearLayout.HORIZONTAL : LinearLayout.VERTICAL);
-                    break;
-            }
+    static void applyOrientation(LinearLayout view, DynamicProperty property) {
+        switch (property.getType()) {
+            case INTEGER:
+                view.setOrientation(property.getValueInt() == 0 ? LinearLayout.HORIZONTAL : LinearLayout.VERTICAL);
+                break;
+            case STRING:
+                view.setOrientation(property.getValueString().equalsIgnoreCase("HORIZONTAL") ? LinearLayout.HORIZONTAL : LinearLayout.VERTICAL);
+                break;
         }
     }
 
     /**
      * apply WeightSum property in LinearLayout
      */
-    private static void applyWeightSum(View view, DynamicProperty property) {
-        if ((view instanceof LinearLayout) && (property.type == DynamicProperty.TYPE.FLOAT)) {
-            ((LinearLayout) view).setWeightSum(property.getValueFloat());
+    static void applyWeightSum(LinearLayout view, DynamicProperty property) {
+        if (property.getType() == DynamicProperty.TYPE.FLOAT) {
+            view.setWeightSum(property.getValueFloat());
         }
     }
 
     /**
      * add string as tag
      */
-    private static void applyTag(View view, DynamicProperty property) {
+    static void applyTag(View view, DynamicProperty property) {
         view.setTag(property.getValueString());
     }
 
     /**
-     * apply generic function in View
+     * apply generic function in View, the call is parsed and its method resolved once, see {@link FunctionCall}
      */
-    private static void applyFunction(View view, DynamicProperty property) {
+    static void applyFunction(View view, DynamicProperty property) {
 
-        if (property.type == DynamicProperty.TYPE.JSON) {
+        if (property.getType() == DynamicProperty.TYPE.JSON) {
             try {
-                JSONObject json = property.getValueJSON();
-
-                String functionName = json.getString("function");
-                JSONArray args = json.getJSONArray("args");
-
-                Class[] argsClass;
-                Object[] argsValue;
-                if (args==null) {
-                    argsClass = new Class[0];
-                    argsValue = new Object[0];
-                } else {
-                    try {
-                        List<Class> classList = new ArrayList<>();
-                        List<Object> valueList= new ArrayList<>();
-
-                        int i=0;
-                        int count = args.length();
-                        for (; i<count ; i++) {
-                            JSONObject argJsonObj = args.getJSONObject(i);
-                            boolean isPrimitive = argJsonObj.has("primitive");
-                            String className = argJsonObj.getString( isPrimitive ? "primitive" : "class");
-                            String classFullName = className;
-                            if (!classFullName.contains("."))
-                                classFullName = "java.lang." + className;
-                            Class clazz = Class.forName(classFullName);
-                            if (isPrimitive) {
-                                Class primitiveType = (Class)clazz.getField("TYPE").get(null);
-                                classList.add( primitiveType );
-                            } else {
-                                classList.add( clazz );
-                            }
-
-                            try {
-                                valueList.add( getFromJSON(argJsonObj, "value", clazz) );
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
-                        }
-                        argsClass = classList.toArray(new Class[classList.size()]);
-                        argsValue = valueList.toArray(new Object[valueList.size()]);
-                    } catch (Exception e) {
-                        argsClass = new Class[0];
-                        argsValue = new Object[0];
-                    }
-                }
-
-                try {
-                    view.getClass().getMethod(functionName, argsClass).invoke(view, argsValue);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-
+                property.getValueFunction().invoke(view);
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -940,8 +831,8 @@ class DynamicHelper {
     }
 
 
-    private static int getResourceById(@NonNull Context context, @NonNull String name, @NonNull String typeResource) {
-        return context.getResources().getIdentifier(name, typeResource, context.getPackageName());
+    private static int getResourceById(@NonNull Context context, @NonNull DynamicProperty property, @NonNull String typeResource) {
+        return ResourceResolver.getIdentifier(context, property, typeResource);
     }
 
     /*private static int getDrawableId(Context context, String name) {
@@ -1004,67 +895,6 @@ class DynamicHelper {
         return Resources.getSystem().getDisplayMetrics().widthPixels;
     }
 
-    /**
-     * get ViewHolder class and make reference for evert @link(DynamicViewId) to the actual view
-     * if target contains HashMap<String, Integer> will replaced with the idsMap
-     */
-    static void parseDynamicView(Object target, View container, HashMap<String, Integer> idsMap) {
-
-        for (Field field : target.getClass().getDeclaredFields()) {
-            if (field.isAnnotationPresent(DynamicViewId.class)) {
-                /* if variable is annotated with @DynamicViewId */
-                final DynamicViewId dynamicViewIdAnnotation = field.getAnnotation(DynamicViewId.class);
-                /* get the Id of the view. if it is not set in annotation user the variable name */
-                String id = dynamicViewIdAnnotation.id();
-                if (id.equalsIgnoreCase(""))
-                    id = field.getName();
-                if (idsMap.containsKey(id)) {
-                    try {
-                        /* get the view Id from the Hashmap and make the connection to the real View */
-                        field.set(target, container.findViewById(idsMap.get(id)));
-                    } catch (IllegalArgumentException ignored) {
-                    } catch (IllegalAccessException e) {
-                        e.printStackTrace();
-                    }
-                }
-            } else if ((field.getName().equalsIgnoreCase("ids")) && (field.getType() == idsMap.getClass())) {
-                try {
-                    field.set(target, idsMap);
-                } catch (IllegalArgumentException ignored) {
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
-            }
-        }
-
-    }
-
-    private static String normalizeTypeREF(String s) {
-        StringBuilder clone = new StringBuilder(s);
-        int idxSearch = clone.lastIndexOf("/");
-        return String.valueOf(clone.delete(0, idxSearch + 1));
-    }
-
-    private static Object getFromJSON(JSONObject json, String name, Class clazz) throws JSONException {
-        if ((clazz == Integer.class)||(clazz == Integer.TYPE)) {
-            return json.getInt(name);
-        } else if ((clazz == Boolean.class)||(clazz == Boolean.TYPE)) {
-            return json.getBoolean(name);
-        } else if ((clazz == Double.class)||(clazz == Double.TYPE)) {
-            return json.getDouble(name);
-        } else if ((clazz == Float.class)||(clazz == Float.TYPE)) {
-            return (float)json.getDouble(name);
-        } else if ((clazz == Long.class)||(clazz == Long.TYPE)) {
-            return json.getLong(name);
-        } else if (clazz == String.class) {
-            return json.getString(name);
-        } else if (clazz == JSONObject.class) {
-            return json.getJSONObject(name);
-        } else {
-            return json.get(name);
-        }
-    }
-
     private static boolean classExists(String className) {
         try {
             Class.forName(className);
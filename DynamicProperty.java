@@ -1,33 +1,27 @@
 package com.avocarrot.json2view;
 
+import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
 import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
-import android.graphics.drawable.GradientDrawable;
-import android.text.TextUtils;
 import android.util.Base64;
-import android.view.ViewGroup;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.util.Arrays;
 
 /**
  * Created by avocarrot on 11/12/2014.
  * Every Property of a View is a Dynaic Property
+ * Public to be handed to custom {@link PropertyApplier}, created only while parsing the layout
  */
-class DynamicProperty {
+public class DynamicProperty {
 
     /**
      * possible types that we handle
      **/
-    enum TYPE {
+    public enum TYPE {
         NO_VALID,
         STRING,
         DIMEN,
@@ -45,7 +39,7 @@ class DynamicProperty {
     /**
      * possible property name that we handle
      **/
-    enum NAME {
+    public enum NAME {
         NO_VALID,
         ID,
         LAYOUT_WIDTH,
@@ -117,18 +111,25 @@ class DynamicProperty {
         ORIENTATION,
 
         TAG,
-        FUNCTION
+        FUNCTION,
+        /* create the view when it is first shown or requested, see DynamicViewStub */
+        LAZY
     }
 
-    public NAME name;
-    public TYPE type;
+    /* final, templates are cached and their properties shared, see TemplateInterner */
+    private final NAME name;
+    private final TYPE type;
+    /* name as set in json (lowercase) when is not one of NAME, used to find custom appliers */
+    private final String customName;
     private Object value;
+    /* id of the referenced resource resolved by ResourceResolver, package and id published together */
+    private volatile ResolvedResource resource;
 
     /**
      * @param v value to convert as string
      * @return Value as object depends on the type
      */
-    private Object convertValue(Object v) {
+    private Object convertValue(Object v) throws Exception {
         if (v==null)
             return null;
         switch (type) {
@@ -139,7 +140,8 @@ class DynamicProperty {
                 return Float.parseFloat(v.toString());
             }
             case DIMEN: {
-                return  convertDimenToPixel(v.toString());
+                /* converted to pixels when applied, with the metrics of the view */
+                return Dimension.parse(v.toString());
             }
             case COLOR: {
                 return convertColor(v.toString());
@@ -158,66 +160,34 @@ class DynamicProperty {
                 return Integer.parseInt(value) == 1;
             }
             case BASE64: {
+                boolean traced = Tracing.phases();
+                if (traced)
+                    Tracing.begin("decodeBase64");
                 try {
-                    InputStream stream = new ByteArrayInputStream(Base64.decode(v.toString(), Base64.DEFAULT));
-                    return BitmapFactory.decodeStream(stream);
+                    /* decode only bounds, the bitmap is decoded by ImagePipeline when applied */
+                    return Base64Image.create(Base64.decode(v.toString(), Base64.DEFAULT));
                 }
                 catch (Exception e) {
                     return null;
                 }
+                finally {
+                    if (traced)
+                        Tracing.end();
+                }
+            }
+            case JSON: {
+                if (name == NAME.FUNCTION)
+                    return FunctionCall.parse((JSONObject)v);
+                return v;
             }
             case DRAWABLE: {
-                JSONObject drawableProperties = (JSONObject)v;
-
-                GradientDrawable gd = new GradientDrawable();
-
                 try {
-                    gd.setColor ( convertColor( drawableProperties.getString("COLOR") ) );
-                } catch (JSONException ignored) {}
-
-                if (drawableProperties.has("CORNER")) {
-                    String cornerValues = null;
-                    try {
-                        cornerValues = drawableProperties.getString("CORNER");
-                    } catch (JSONException ignored){}
-                    if (!TextUtils.isEmpty(cornerValues)) {
-                        if (cornerValues.contains("|")) {
-                            float[] corners = new float[8];
-                            Arrays.fill(corners, 0);
-                            String[] values = cornerValues.split("\\|");
-                            int count = Math.min(values.length, corners.length);
-                            for (int i=0 ; i<count ; i++) {
-                                try {
-                                    corners[i] = convertDimenToPixel(values[i]);
-                                } catch (Exception e) {
-                                    corners[i] = 0f;
-                                }
-                            }
-                            gd.setCornerRadii(corners);
-                        } else {
-                            try {
-                                gd.setCornerRadius( convertDimenToPixel(cornerValues) );
-                            } catch (Exception e) {
-                                gd.setCornerRadius(0f);
-                            }
-                        }
-                    }
-
-                }
-                int strokeColor = 0x00FFFFFF;
-                int strokeSize = 0;
-                if (drawableProperties.has("STROKECOLOR")) {
-                    try {
-                        strokeColor = convertColor( drawableProperties.getString("STROKECOLOR") );
-                    } catch (JSONException ignored) {}
+                    /* drawables with the same spec share their state */
+                    return DrawableCache.get((JSONObject)v);
                 }
-                if (drawableProperties.has("STROKESIZE")) {
-                    try {
-                        strokeSize = (int) convertDimenToPixel( drawableProperties.getString("STROKESIZE") );
-                    } catch (JSONException ignored) {}
+                catch (Exception e) {
+                    return null;
                 }
-                gd.setStroke(strokeSize, strokeColor);
-                return gd;
             }
         }
         return v;
@@ -228,35 +198,116 @@ class DynamicProperty {
      * @param jsonObject : json to parse
      */
     DynamicProperty(JSONObject jsonObject) {
+        this(jsonObject.optString("name", null), jsonObject.optString("type", null), jsonObject.opt("value"));
+    }
+
+    /**
+     * create property with a value that is already converted by its type
+     * @param name : name of the property
+     * @param customName : name as set in json if name is NO_VALID
+     * @param type : type of the value
+     * @param value : converted value, see {@link #convertValue(Object)}
+     */
+    DynamicProperty(NAME name, String customName, TYPE type, Object value) {
         super();
+        this.name = name;
+        this.customName = customName;
+        this.type = type;
+        this.value = value;
+    }
+
+    /**
+     * create property from the values as read from json
+     * @param name : name of the property
+     * @param type : type of the value
+     * @param v : value as read from json (String, Number, Boolean, JSONObject or JSONArray)
+     */
+    DynamicProperty(String name, String type, Object v) {
+        super();
+        this.name = nameOf(name);
+        this.customName = this.name == NAME.NO_VALID && name != null ? name.toLowerCase().trim() : null;
+        this.type = typeOf(type);
+        if (v instanceof String) {
+            /* values with placeholders are converted when data is bound */
+            Binding binding = Binding.parse((String) v);
+            if (binding != null) {
+                value = binding;
+                return;
+            }
+        }
+        InflationMetrics metrics = InflationMetrics.current();
+        long start = metrics == null ? 0 : System.nanoTime();
+        try {
+            value = convertValue(v);
+        } catch (Exception ignored) {}
+        if (metrics != null)
+            metrics.convertNanos += System.nanoTime() - start;
+    }
+
+    private static NAME nameOf(String name) {
         try {
-            name = NAME.valueOf(jsonObject.getString("name").toUpperCase().trim());
+            return NAME.valueOf(name.toUpperCase().trim());
         } catch (Exception e) {
-            name = NAME.NO_VALID;
+            return NAME.NO_VALID;
         }
+    }
+
+    private static TYPE typeOf(String type) {
         try {
-            type = TYPE.valueOf(jsonObject.getString("type").toUpperCase().trim());
+            return TYPE.valueOf(type.toUpperCase().trim());
         } catch (Exception e) {
-            type = TYPE.NO_VALID;
+            return TYPE.NO_VALID;
         }
-        try {
-            value = convertValue(jsonObject.get("value"));
-        } catch (Exception ignored) {}
+    }
+
+    public NAME getName() {
+        return name;
+    }
+
+    public TYPE getType() {
+        return type;
+    }
+
+    /**
+     * @return name as set in json (lowercase) when name is NO_VALID, or null
+     */
+    public String getCustomName() {
+        return customName;
     }
 
     public boolean isValid() {
         return value!=null;
     }
 
+    /**
+     * @return true if value has placeholders, see {@link #bind(JSONObject)}
+     */
+    boolean isBound() {
+        return value instanceof Binding;
+    }
+
+    /**
+     * @param data : the data to bind
+     * @return the property with the placeholders of its value replaced by data and converted by its type
+     */
+    DynamicProperty bind(JSONObject data) {
+        DynamicProperty bound = new DynamicProperty(name, customName, type, null);
+        try {
+            bound.value = bound.convertValue(((Binding) value).evaluate(data));
+        } catch (Exception ignored) {}
+        return bound;
+    }
+
     /**
      * @param clazz :
      * @param varName :
      * @return search in clazz of possible variable name (varName) and return its value
      */
-    Object getValueInt(Class clazz, String varName) {
+    public Object getValueInt(Class clazz, String varName) {
         java.lang.reflect.Field fieldRequested;
 
         try {
+            InflationMetrics.reflectiveLookup();
             fieldRequested = clazz.getField(varName);
             if (fieldRequested!=null) {
                 return fieldRequested.get(clazz);
@@ -269,70 +320,167 @@ class DynamicProperty {
 
     /** next function just cast value and return the object **/
 
-    int getValueColor() {
+    public int getValueColor() {
         if (type == TYPE.COLOR) return Integer.class.cast(value);
         return -1;
     }
 
-    String getValueString() {
+    public String getValueString() {
         return String.class.cast(value);
     }
 
-    int getValueInt() {
+    /**
+     * dimens are converted with the system metrics, see {@link #getValueDimen(Context)}
+     */
+    public int getValueInt() {
         if (value instanceof Integer)
             return Integer.class.cast(value);
-        else if (value instanceof Float)
+        else if (value instanceof Float || value instanceof Dimension)
             return (int) getValueFloat();
         else
             return (int) value;
     }
 
-    float getValueFloat() {
+    /**
+     * dimens are converted with the system metrics, see {@link #getValueDimen(Context)}
+     */
+    public float getValueFloat() {
+        if (value instanceof Dimension)
+            return DimensionResolver.of(Resources.getSystem()).resolve((Dimension) value);
         return Float.class.cast(value);
     }
 
-    Boolean getValueBoolean() {
+    /**
+     * @param context : context of the view, its display metrics convert the dimen
+     * @return the dimen in pixels
+     */
+    public float getValueDimen(Context context) {
+        if (value instanceof Dimension)
+            return DimensionResolver.of(context).resolve((Dimension) value);
+        return ((Number) value).floatValue();
+    }
+
+    public Boolean getValueBoolean() {
         return Boolean.class.cast(value);
     }
 
-    Bitmap getValueBitmap() {
+    public Bitmap getValueBitmap() {
+        if (value instanceof Base64Image)
+            return ImagePipeline.decode((Base64Image) value);
         return (Bitmap)value;
     }
 
-    Drawable getValueBitmapDrawable() {
-        return new BitmapDrawable(Resources.getSystem(), getValueBitmap());
+    public Drawable getValueBitmapDrawable() {
+        return getValueBitmapDrawable(Resources.getSystem());
+    }
+
+    /**
+     * @param resources : resources of the view, for the density of the drawable
+     */
+    public Drawable getValueBitmapDrawable(Resources resources) {
+        return new BitmapDrawable(resources, getValueBitmap());
     }
 
-    Drawable getValueGradientDrawable() {
-        return (Drawable)value;
+    public Drawable getValueGradientDrawable() {
+        /* every view gets its own drawable with the shared state */
+        return ((Drawable.ConstantState) value).newDrawable();
     }
 
-    JSONObject getValueJSON() {
+    public JSONObject getValueJSON() {
+        if (value instanceof FunctionCall)
+            return ((FunctionCall) value).json;
         return JSONObject.class.cast(value);
     }
 
-    private int convertColor(String color) {
+    /**
+     * @return the parsed call of FUNCTION property
+     */
+    FunctionCall getValueFunction() {
+        return (FunctionCall) value;
+    }
+
+    /**
+     * keep the id of the referenced resource, templates are inflated in one package in practice
+     */
+    void setResourceId(String packageName, int id) {
+        resource = new ResolvedResource(packageName, id);
+    }
+
+    /**
+     * @return the id of the referenced resource or -1 if it is not resolved for this package
+     */
+    int getResourceId(String packageName) {
+        ResolvedResource resolved = resource;
+        return resolved != null && packageName.equals(resolved.packageName) ? resolved.id : -1;
+    }
+
+    /**
+     * id of a resource in the package it was resolved for, immutable so a reader never sees the id of another package
+     */
+    private static final class ResolvedResource {
+        final String packageName;
+        final int id;
+
+        ResolvedResource(String packageName, int id) {
+            this.packageName = packageName;
+            this.id = id;
+        }
+    }
+
+    /**
+     * @return true if other has the same name, type and value, so applying it changes nothing
+     */
+    boolean sameAs(DynamicProperty other) {
+        if (name != other.name || type != other.type)
+            return false;
+        if (customName == null ? other.customName != null : !customName.equals(other.customName))
+            return false;
+        if (value == null || other.value == null)
+            return value == other.value;
+        /* json values have no equals, compare their text */
+        if (value instanceof JSONObject || value instanceof FunctionCall)
+            return getValueJSON().toString().equals(other.getValueJSON().toString());
+        return value.equals(other.value);
+    }
+
+    /**
+     * use the shared instance of an equal value, for values that are immutable
+     */
+    void shareValue(TemplateInterner.Interner<Object> values) {
+        if (value instanceof String || value instanceof Integer || value instanceof Float
+                || value instanceof Dimension || value instanceof Binding || value instanceof Base64Image)
+            value = values.intern(value);
+    }
+
+    /**
+     * properties are equal when they apply the same, see {@link #sameAs(DynamicProperty)}
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof DynamicProperty && sameAs((DynamicProperty) o));
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 31 * (name == null ? 0 : name.ordinal()) + (type == null ? 0 : type.ordinal());
+        h = 31 * h + (customName == null ? 0 : customName.hashCode());
+        if (value instanceof JSONObject || value instanceof FunctionCall)
+            return 31 * h + getValueJSON().toString().hashCode();
+        return 31 * h + (value == null ? 0 : value.hashCode());
+    }
+
+    /**
+     * @return the converted value as is
+     */
+    Object getValue() {
+        return value;
+    }
+
+    static int convertColor(String color) {
         if (color.startsWith("0x")) {
             return (int) Long.parseLong(color.substring(2), 16);
         }
         return Color.parseColor(color);
     }
 
-    private float convertDimenToPixel(String dimen) {
-        if (dimen.endsWith("dp"))
-            return DynamicHelper.dpToPx(Float.parseFloat(dimen.substring(0, dimen.length() - 2)));
-        else if (dimen.endsWith("sp"))
-            return DynamicHelper.spToPx(Float.parseFloat(dimen.substring(0, dimen.length() - 2)));
-        else if (dimen.endsWith("px"))
-            return Integer.parseInt(dimen.substring(0, dimen.length() - 2));
-        else if (dimen.endsWith("%"))
-            return (int)(Float.parseFloat(dimen.substring(0, dimen.length() - 1))/100f * DynamicHelper.deviceWidth());
-        else if (dimen.equalsIgnoreCase("match_parent"))
-            return ViewGroup.LayoutParams.MATCH_PARENT;
-        else if (dimen.equalsIgnoreCase("wrap_content"))
-            return ViewGroup.LayoutParams.WRAP_CONTENT;
-        else
-            return Integer.parseInt(dimen);
-    }
-
 }
@@ -0,0 +1,341 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.NonNull;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.json.JSONObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.WeakHashMap;
+
+/**
+ * RecyclerView adapter of dynamic layouts, every distinct layout is a view type. Layouts are distinct by content,
+ * templates compiled again from the same json share their view type. Rows without data of layouts with placeholders
+ * have their own view type, their views are never bound so they do not show the values of a previous row.
+ * Views are created with the holder class (see {@link DynamicViewId}) and data is applied in their
+ * placeholders with {@link DynamicView#bind(View, JSONObject)}.
+ *
+ * While main thread is idle the adapter creates views for the view types of the next items,
+ * so scrolling to a new layout does not create its views in onCreateViewHolder.
+ */
+public class DynamicRecyclerAdapter extends RecyclerView.Adapter<DynamicRecyclerAdapter.DynamicViewHolder> {
+
+    /** number of items after the last bound one whose view types are prefetched */
+    private static final int PREFETCH_DISTANCE = 10;
+    /** maximum number of prefetched views for every view type */
+    private static final int PREFETCH_PER_TYPE = 2;
+
+    /**
+     * A row of the list, its layout and its data
+     */
+    public static class Item {
+        final String key;
+        final LayoutTemplate template;
+        final JSONObject data;
+
+        /**
+         * @param key : identity of the item in the list, to find the same item when items change (or null)
+         * @param template : compiled layout of the row
+         * @param data : data to bind in the placeholders of the layout (or null). Items are compared by the instance
+         *             of their data, pass a new JSONObject when the data of a row changes
+         */
+        public Item(String key, @NonNull LayoutTemplate template, JSONObject data) {
+            this.key = key;
+            this.template = template;
+            this.data = data;
+        }
+
+        /**
+         * @param layout : json layout of the row, compiled through {@link LayoutTemplateCache#getDefault()}
+         */
+        public Item(String key, @NonNull JSONObject layout, JSONObject data) {
+            this(key, LayoutTemplateCache.getDefault().get(layout), data);
+        }
+    }
+
+    /**
+     * Holder of a dynamic row
+     */
+    public static class DynamicViewHolder extends RecyclerView.ViewHolder {
+        public DynamicViewHolder(View itemView) {
+            super(itemView);
+        }
+
+        /**
+         * @return the instance of the holder class that attached as tag in the view, or null
+         */
+        public Object getHolder() {
+            return itemView.getTag();
+        }
+    }
+
+    private final Context context;
+    private final Class holderClass;
+
+    private List<Item> items = Collections.emptyList();
+    /* view type is the position of the template in the list */
+    private final List<LayoutTemplate> templates = new ArrayList<>();
+    private final HashMap<ViewTypeKey, Integer> viewTypes = new HashMap<>();
+    /* hash of the nodes of every template seen, computed once per instance */
+    private final WeakHashMap<LayoutTemplate, Integer> nodeHashes = new WeakHashMap<>();
+    /* views that created while idle, by view type */
+    private final List<ArrayDeque<View>> prefetched = new ArrayList<>();
+
+    private RecyclerView recyclerView;
+    private int lastBoundPosition = -1;
+    private boolean prefetchScheduled = false;
+
+    /**
+     * @param holderClass : class that will be created as an holder and attached as a tag in every row, or null
+     */
+    public DynamicRecyclerAdapter(@NonNull Context context, Class holderClass) {
+        this.context = context;
+        this.holderClass = holderClass;
+    }
+
+    /**
+     * change the items, only the rows that changed are bound again
+     * @param newItems : the new items
+     */
+    public void setItems(@NonNull List<Item> newItems) {
+        final List<Item> oldItems = items;
+        final List<Item> copy = new ArrayList<>(newItems);
+        final int[] oldViewTypes = new int[oldItems.size()];
+        for (int i = 0; i < oldViewTypes.length; i++) {
+            oldViewTypes[i] = viewTypeOf(oldItems.get(i));
+        }
+        final int[] newViewTypes = new int[copy.size()];
+        for (int i = 0; i < newViewTypes.length; i++) {
+            newViewTypes[i] = viewTypeOf(copy.get(i));
+        }
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldItems.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return copy.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                Item oldItem = oldItems.get(oldPosition);
+                Item newItem = copy.get(newPosition);
+                if (oldItem.key == null || newItem.key == null)
+                    return oldItem == newItem;
+                return oldItem.key.equals(newItem.key);
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                /* same layout and the same data instance, json is not serialized to compare on main thread */
+                return oldViewTypes[oldPosition] == newViewTypes[newPosition]
+                        && oldItems.get(oldPosition).data == copy.get(newPosition).data;
+            }
+        });
+        items = copy;
+        diff.dispatchUpdatesTo(this);
+        schedulePrefetch();
+    }
+
+    public Item getItem(int position) {
+        return items.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return items.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return viewTypeOf(items.get(position));
+    }
+
+    @Override
+    public DynamicViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = prefetched.get(viewType).poll();
+        if (view == null)
+            view = createView(viewType, parent);
+        if (view == null) {
+            /* layout is not valid, keep the row empty */
+            view = new View(parent.getContext());
+        }
+        return new DynamicViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(DynamicViewHolder holder, int position) {
+        Item item = items.get(position);
+        /* rows without data have a view type whose views are never bound, see viewTypeOf */
+        if (item.data != null)
+            DynamicView.bind(holder.itemView, item.data);
+        onBind(holder, item);
+        lastBoundPosition = position;
+        schedulePrefetch();
+    }
+
+    /**
+     * called after the data of the item is bound, to set what placeholders cannot (listeners, images from network, ...)
+     * @param holder : holder of the row, see {@link DynamicViewHolder#getHolder()}
+     * @param item : the item of the row
+     */
+    protected void onBind(DynamicViewHolder holder, Item item) {
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        this.recyclerView = recyclerView;
+        schedulePrefetch();
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        this.recyclerView = null;
+        for (ArrayDeque<View> views : prefetched) {
+            views.clear();
+        }
+    }
+
+    private int viewTypeOf(Item item) {
+        LayoutTemplate template = item.template;
+        Integer nodeHash = nodeHashes.get(template);
+        if (nodeHash == null) {
+            nodeHash = ViewTypeKey.hash(template.root);
+            nodeHashes.put(template, nodeHash);
+        }
+        ViewTypeKey key = new ViewTypeKey(template, nodeHash, item.data == null && template.boundCount > 0);
+        Integer viewType = viewTypes.get(key);
+        if (viewType == null) {
+            viewType = templates.size();
+            templates.add(template);
+            prefetched.add(new ArrayDeque<View>());
+            viewTypes.put(key, viewType);
+        }
+        return viewType;
+    }
+
+    private View createView(int viewType, ViewGroup parent) {
+        return DynamicView.createView(context, templates.get(viewType), parent, holderClass);
+    }
+
+    private void schedulePrefetch() {
+        if (prefetchScheduled || recyclerView == null || Looper.myLooper() != Looper.getMainLooper())
+            return;
+        prefetchScheduled = true;
+        Looper.myQueue().addIdleHandler(prefetch);
+    }
+
+    /**
+     * create one view every time main thread is idle, for the next items whose view type has no prefetched views
+     */
+    private final MessageQueue.IdleHandler prefetch = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            if (recyclerView == null) {
+                prefetchScheduled = false;
+                return false;
+            }
+            int end = Math.min(items.size(), lastBoundPosition + 1 + PREFETCH_DISTANCE);
+            for (int position = lastBoundPosition + 1; position < end; position++) {
+                int viewType = getItemViewType(position);
+                ArrayDeque<View> views = prefetched.get(viewType);
+                if (views.size() >= countOf(viewType, lastBoundPosition + 1, end))
+                    continue;
+                View view = createView(viewType, recyclerView);
+                if (view != null)
+                    views.add(view);
+                /* keep the handler until nothing is left to prefetch */
+                return true;
+            }
+            prefetchScheduled = false;
+            return false;
+        }
+    };
+
+    /**
+     * @return number of views to prefetch for the view type, items of the type between from and end up to the maximum
+     */
+    private int countOf(int viewType, int from, int end) {
+        int count = 0;
+        for (int position = from; position < end && count < PREFETCH_PER_TYPE; position++) {
+            if (getItemViewType(position) == viewType)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * content of a template that makes a view type. Nodes are compared by content all the way down, so templates
+     * compiled again share their view type whether or not {@link TemplateInterner} shared their nodes
+     */
+    private static final class ViewTypeKey {
+        final LayoutTemplate.Node root;
+        final String[] ids;
+        /* rows without data of a layout with placeholders */
+        final boolean unbound;
+        private final int hash;
+
+        /**
+         * @param nodeHash : {@link #hash(LayoutTemplate.Node)} of the root of the template
+         */
+        ViewTypeKey(LayoutTemplate template, int nodeHash, boolean unbound) {
+            this.root = template.root;
+            this.ids = template.ids;
+            this.unbound = unbound;
+            this.hash = 31 * (31 * nodeHash + Arrays.hashCode(ids)) + (unbound ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ViewTypeKey))
+                return false;
+            ViewTypeKey other = (ViewTypeKey) o;
+            return hash == other.hash && unbound == other.unbound && Arrays.equals(ids, other.ids) && equal(root, other.root);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private static boolean equal(LayoutTemplate.Node a, LayoutTemplate.Node b) {
+            if (a == b)
+                return true;
+            if (a.idIndex != b.idIndex || a.generation != b.generation || a.bound != b.bound || a.lazy != b.lazy || !a.widget.equals(b.widget)
+                    || !Arrays.equals(a.properties, b.properties) || !Arrays.equals(a.refs, b.refs)
+                    || a.children.length != b.children.length)
+                return false;
+            for (int i = 0; i < a.children.length; i++) {
+                if (!equal(a.children[i], b.children[i]))
+                    return false;
+            }
+            return true;
+        }
+
+        static int hash(LayoutTemplate.Node node) {
+            int h = node.widget.hashCode();
+            h = 31 * h + Arrays.hashCode(node.properties);
+            h = 31 * h + Arrays.hashCode(node.refs);
+            h = 31 * h + node.idIndex;
+            h = 31 * h + node.generation;
+            for (LayoutTemplate.Node child : node.children) {
+                h = 31 * h + hash(child);
+            }
+            return h;
+        }
+    }
+}
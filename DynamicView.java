@@ -2,27 +2,34 @@ package com.avocarrot.json2view;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
-import android.text.TextUtils;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
 
-import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Created by avocarrot on 11/12/2014.
  * parse the json as a tree and create View with its dynamicProperties
+ * json is compiled to a {@link LayoutTemplate} first, use {@link LayoutTemplateCache} to reuse templates
  */
 public class DynamicView {
 
-    private static int mCurrentId = 13;
-    private static final int INTERNAL_TAG_ID = 0x7f020000;
+    /* the template that every root created from, to update it */
+    private static final Map<View, LayoutTemplate> sTemplates = Collections.synchronizedMap(new WeakHashMap<View, LayoutTemplate>());
+    /* the state of every root, its bound views and lazy stubs */
+    private static final Map<View, Inflation> sInflations = Collections.synchronizedMap(new WeakHashMap<View, Inflation>());
 
     /**
      * @param jsonObject : json object
@@ -44,24 +51,232 @@ public class DynamicView {
         if (jsonObject==null)
             return null;
 
-        HashMap<String, Integer> ids = new HashMap<>();
+        InflationMetrics metrics = InflationMetrics.begin();
+        LayoutTemplate template = null;
+        try {
+            long start = metrics == null ? 0 : System.nanoTime();
+            template = compile(jsonObject);
+            if (metrics != null)
+                metrics.parseNanos = System.nanoTime() - start - metrics.convertNanos;
+            return createView(context, template, parent, holderClass);
+        } finally {
+            InflationMetrics.end(metrics, template);
+        }
+
+    }
+
+    private static LayoutTemplate compile(JSONObject jsonObject) {
+        boolean traced = Tracing.phases();
+        if (traced)
+            Tracing.begin("compile");
+        try {
+            return LayoutTemplate.compile(jsonObject);
+        } finally {
+            if (traced)
+                Tracing.end();
+        }
+    }
+
+    private static LayoutTemplate compile(Reader reader) {
+        boolean traced = Tracing.phases();
+        if (traced)
+            Tracing.begin("compile");
+        try {
+            return LayoutTemplate.compile(reader);
+        } finally {
+            if (traced)
+                Tracing.end();
+        }
+    }
+
+    /**
+     * read the json from the stream and create the views, without building the json as JSONObject
+     * @param inputStream : stream of the json layout as UTF-8, closed when read ends
+     * @param parent : parent viewGroup
+     * @return the view that created
+     */
+    public static View createView (@NonNull Context context, @NonNull InputStream inputStream, ViewGroup parent) {
+        return createView(context, new InputStreamReader(inputStream, Charset.forName("UTF-8")), parent);
+    }
+
+    /**
+     * read the json from the reader and create the views, without building the json as JSONObject
+     * @param reader : reader of the json layout, closed when read ends
+     * @param parent : parent viewGroup
+     * @return the view that created
+     */
+    public static View createView (@NonNull Context context, @NonNull Reader reader, ViewGroup parent) {
+        InflationMetrics metrics = InflationMetrics.begin();
+        LayoutTemplate template = null;
+        try {
+            long start = metrics == null ? 0 : System.nanoTime();
+            template = compile(reader);
+            if (metrics != null)
+                metrics.parseNanos = System.nanoTime() - start - metrics.convertNanos;
+            return createView(context, template, parent, (Class) null);
+        } finally {
+            InflationMetrics.end(metrics, template);
+        }
+    }
+
+    /**
+     * Callback of asynchronous inflation, called in main thread
+     */
+    public interface InflateCallback {
+        /**
+         * @param view : the view that created or null if layout is not valid
+         */
+        void onInflated(View view);
+    }
+
+    /**
+     * parse and convert the layout in background, create the views in a dedicated looper thread and deliver them in main thread.
+     * Layouts are kept in {@link LayoutTemplateCache#getDefault()}.
+     * If context is an Activity the inflation is cancelled when the activity is destroyed
+     * @param json : layout as string
+     * @param parent : parent viewGroup, used only for LayoutParams
+     * @param callback : called in main thread with the view that created
+     * @return the task of the inflation, to cancel it
+     */
+    public static InflationTask inflateAsync(@NonNull Context context, @NonNull final String json, ViewGroup parent, @NonNull InflateCallback callback) {
+        return AsyncInflater.inflate(context, new AsyncInflater.TemplateSource() {
+            @Override
+            public LayoutTemplate load() {
+                return LayoutTemplateCache.getDefault().get(json);
+            }
+        }, parent, callback);
+    }
+
+    /**
+     * see {@link #inflateAsync(Context, String, ViewGroup, InflateCallback)}
+     * @param jsonObject : layout as json object
+     */
+    public static InflationTask inflateAsync(@NonNull Context context, @NonNull final JSONObject jsonObject, ViewGroup parent, @NonNull InflateCallback callback) {
+        return AsyncInflater.inflate(context, new AsyncInflater.TemplateSource() {
+            @Override
+            public LayoutTemplate load() {
+                return LayoutTemplateCache.getDefault().get(jsonObject);
+            }
+        }, parent, callback);
+    }
+
+    /**
+     * see {@link #inflateAsync(Context, String, ViewGroup, InflateCallback)}
+     * @param reader : reader of the json layout, read in background without building the json as JSONObject
+     */
+    public static InflationTask inflateAsync(@NonNull Context context, @NonNull final Reader reader, ViewGroup parent, @NonNull InflateCallback callback) {
+        return AsyncInflater.inflate(context, new AsyncInflater.TemplateSource() {
+            @Override
+            public LayoutTemplate load() {
+                return LayoutTemplate.compile(reader);
+            }
+        }, parent, callback);
+    }
+
+    /**
+     * see {@link #inflateAsync(Context, String, ViewGroup, InflateCallback)}
+     * @param template : compiled layout, only the views are created off the main thread
+     */
+    public static InflationTask inflateAsync(@NonNull Context context, @NonNull final LayoutTemplate template, ViewGroup parent, @NonNull InflateCallback callback) {
+        return AsyncInflater.inflate(context, new AsyncInflater.TemplateSource() {
+            @Override
+            public LayoutTemplate load() {
+                return template;
+            }
+        }, parent, callback);
+    }
+
+    /**
+     * @param enabled : false to create the views of asynchronous inflation in main thread, after parsing in background (default true)
+     */
+    public static void setAsyncViewCreation(boolean enabled) {
+        AsyncInflater.setCreateViewsInBackground(enabled);
+    }
+
+    /**
+     * @param template : compiled layout, see {@link LayoutTemplateCache}
+     * @param parent : parent viewGroup
+     * @return the view that created
+     */
+    public static View createView (@NonNull Context context, LayoutTemplate template, ViewGroup parent) {
+        return createView(context, template, parent, (Class) null);
+    }
+
+    /**
+     * @param template : compiled layout, see {@link LayoutTemplateCache}
+     * @param parent : parent viewGroup
+     * @param holderClass : class that will be created as an holder and attached as a tag in the View, If contains HashMap ids will replaced with idsMap
+     * @return the view that created
+     */
+    public static View createView (@NonNull Context context, LayoutTemplate template, ViewGroup parent, Class holderClass) {
+        return createView(context, template, parent, holderClass, null);
+    }
+
+    /**
+     * create the views with the released views of the pool, release the view in pool when it is not used anymore
+     * @param template : compiled layout, see {@link LayoutTemplateCache}
+     * @param parent : parent viewGroup
+     * @param pool : pool of views
+     * @return the view that created
+     */
+    public static View createView (@NonNull Context context, LayoutTemplate template, ViewGroup parent, @NonNull DynamicViewPool pool) {
+        return createView(context, template, parent, null, pool);
+    }
+
+    /**
+     * @param template : compiled layout, see {@link LayoutTemplateCache}
+     * @param parent : parent viewGroup
+     * @param holderClass : class that will be created as an holder and attached as a tag in the View, If contains HashMap ids will replaced with idsMap.
+     *                    Lazy views of the fields are created to bind them, see {@link DynamicViews#get(String)}
+     * @param pool : pool of views to reuse or null
+     * @return the view that created
+     */
+    public static View createView (@NonNull Context context, LayoutTemplate template, ViewGroup parent, Class holderClass, DynamicViewPool pool) {
+        InflationMetrics metrics = InflationMetrics.begin();
+        boolean traced = Tracing.phases();
+        if (traced)
+            Tracing.begin("inflate");
+        try {
+            return inflate(context, template, parent, holderClass, pool);
+        } finally {
+            if (traced)
+                Tracing.end();
+            InflationMetrics.end(metrics, template);
+        }
+    }
+
+    private static View inflate (@NonNull Context context, LayoutTemplate template, ViewGroup parent, Class holderClass, DynamicViewPool pool) {
+
+        if (template==null)
+            return null;
+
+        Inflation inflation = new Inflation(template, pool);
+        InflationMetrics metrics = InflationMetrics.current();
+        inflation.metrics = metrics;
 
-        View container = createViewInternal(context, jsonObject, parent, ids);
+        /* the root is never lazy */
+        View container = createNodeView(context, template.root, parent, inflation);
 
         if (container==null)
             return null;
 
-        if (container.getTag(INTERNAL_TAG_ID) != null)
-            DynamicHelper.applyLayoutProperties(container, (List<DynamicProperty>) container.getTag(INTERNAL_TAG_ID), parent, ids);
+        long start = metrics == null ? 0 : System.nanoTime();
+        DynamicHelper.applyLayoutProperties(container, template.root.properties, template.root.refs, parent, inflation.viewIds);
+        if (metrics != null)
+            metrics.layoutNanos += System.nanoTime() - start;
 
-        /* clear tag from properties */
-        container.setTag(INTERNAL_TAG_ID, null);
+        sTemplates.put(container, template);
+        sInflations.put(container, inflation);
 
         if (holderClass!= null) {
 
+            start = metrics == null ? 0 : System.nanoTime();
+            boolean traced = Tracing.phases();
+            if (traced)
+                Tracing.begin("bindHolder");
             try {
-                Object holder = holderClass.getConstructor().newInstance();
-                DynamicHelper.parseDynamicView(holder, container, ids);
+                /* views are set from the views recorded while created, see HolderBinders */
+                Object holder = HolderBinders.create(holderClass, new DynamicViews(template, inflation));
                 container.setTag(holder);
             } catch (InstantiationException e) {
                 e.printStackTrace();
@@ -71,10 +286,17 @@ public class DynamicView {
                 e.printStackTrace();
             } catch (InvocationTargetException e) {
                 e.printStackTrace();
+            } finally {
+                if (traced)
+                    Tracing.end();
             }
+            if (metrics != null)
+                metrics.bindHolderNanos += System.nanoTime() - start;
 
         }
 
+        /* lazy views that created later are not recorded */
+        inflation.metrics = null;
         return container;
 
     }
@@ -97,90 +319,303 @@ public class DynamicView {
     }
 
     /**
-     * use internal to parse the json as a tree to create View
-     * @param jsonObject : json object
-     * @param ids : the hashMap where we keep ids as string from json to ids as int in the layout
-     * @return the view that created
+     * change a view that created by DynamicView to match a new layout, without creating it again.
+     * Only the properties that changed are applied and only the subtrees that changed widget or children are created again,
+     * see {@link LayoutPatcher}. The holder of the view is not updated
+     * @param root : the view that created by DynamicView
+     * @param newLayout : json object of the new layout
+     * @return the updated root, a new view if the root is created again (it replaces root in its parent), or null if layout is not valid
      */
-    private static View createViewInternal (@NonNull Context context, JSONObject jsonObject, ViewGroup parent, HashMap<String, Integer> ids) {
-        View view = null;
+    public static View update(@NonNull View root, @NonNull JSONObject newLayout) {
+        LayoutTemplate newTemplate = LayoutTemplate.compile(newLayout);
+        if (newTemplate==null)
+            return null;
+        LayoutTemplate oldTemplate = sTemplates.get(root);
+
+        View view;
+        if (oldTemplate==null) {
+            /* not created by DynamicView, create the whole tree */
+            ViewGroup parent = root.getParent() instanceof ViewGroup ? (ViewGroup) root.getParent() : null;
+            view = createView(root.getContext(), newTemplate, parent);
+            if (view != null && parent != null) {
+                int index = parent.indexOfChild(root);
+                parent.removeViewAt(index);
+                parent.addView(view, index);
+            }
+        } else {
+            LayoutPatcher patcher = new LayoutPatcher(root.getContext(), oldTemplate, newTemplate);
+            view = patcher.patch(root);
+            if (view != null) {
+                Inflation inflation = patcher.getInflation();
+                if (newTemplate.boundCount > 0) {
+                    /* only the subtrees created again are recorded while patched, collect the whole tree */
+                    inflation.boundViews = new BoundViews(newTemplate.boundCount);
+                    inflation.boundViews.collect(view, newTemplate.root);
+                }
+                sTemplates.remove(root);
+                sInflations.remove(root);
+                sTemplates.put(view, newTemplate);
+                sInflations.put(view, inflation);
+            }
+        }
+        return view;
+    }
 
-        ArrayList<DynamicProperty> properties;
+    /**
+     * create the view of a lazy node (LAZY property or visibility gone) if it is not created yet, see {@link DynamicViewStub}.
+     * Lazy nodes that contain the view are created too
+     * @param root : the view that created by DynamicView
+     * @param id : the id of the view as set in layout
+     * @return the view or null if root has no view with that id
+     */
+    public static View inflateLazy(@NonNull View root, @NonNull String id) {
+        LayoutTemplate template = sTemplates.get(root);
+        Inflation inflation = sInflations.get(root);
+        if (template==null || inflation==null)
+            return null;
+        int index = template.indexOfId(id);
+        if (index < 0)
+            return null;
+        return inflateLazy(inflation, index);
+    }
 
-        try {
-            /* Create the View Object. If not full package is available try to create a view from android.widget */
-            String widget = jsonObject.getString("widget");
-            if (!widget.contains(".")) {
-                widget = "android.widget." + widget;
+    /**
+     * @param index : id index of the view
+     * @return the view with the id index, its stub and the stubs that contain it are inflated, or null if it cannot be created
+     */
+    static View inflateLazy(Inflation inflation, int index) {
+        while (true) {
+            View view = inflation.view(index);
+            if (view instanceof DynamicViewStub)
+                return ((DynamicViewStub) view).inflate();
+            if (view != null)
+                return view;
+            /* the view is in a lazy subtree, create the outer stub and look again */
+            DynamicViewStub outer = null;
+            for (DynamicViewStub stub : inflation.stubs()) {
+                if (!stub.isInflated() && stub.contains(index)) {
+                    outer = stub;
+                    break;
+                }
+            }
+            if (outer == null || outer.inflate() == null)
+                return null;
+        }
+    }
+
+    /**
+     * apply again the dimens of a view that created by DynamicView, with the current metrics of its Context.
+     * Call it from onConfigurationChanged when the activity keeps its views on rotation or font scale change,
+     * the template is not compiled again. Bound dimens apply with the next {@link #bind(View, JSONObject)}
+     * @param root : the view that created by DynamicView
+     */
+    public static void applyDimensions(@NonNull View root) {
+        LayoutTemplate template = sTemplates.get(root);
+        Inflation inflation = sInflations.get(root);
+        if (template==null || inflation==null)
+            return;
+        ViewParent parent = root.getParent();
+        applyDimensions(root, template.root, parent instanceof ViewGroup ? (ViewGroup) parent : null, inflation.viewIds);
+    }
+
+    private static void applyDimensions(View view, LayoutTemplate.Node node, ViewGroup parent, int[] viewIds) {
+        /* stubs resolve their dimens when they are inflated */
+        if (view instanceof DynamicViewStub)
+            return;
+        PropertyApplier[] appliers = node.appliersFor(view.getClass());
+        boolean layout = false;
+        for (int i = 0; i < node.properties.length; i++) {
+            DynamicProperty property = node.properties[i];
+            if (property.getType() != DynamicProperty.TYPE.DIMEN || property.isBound())
+                continue;
+            if (appliers[i] == null) {
+                layout = true;
+                continue;
+            }
+            try {
+                appliers[i].apply(view, property);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        if (layout)
+            DynamicHelper.applyLayoutProperties(view, node.properties, node.refs, parent, viewIds);
+
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            /* children are created in the order of their nodes */
+            if (viewGroup.getChildCount() != node.children.length)
+                return;
+            for (int i = 0; i < node.children.length; i++) {
+                applyDimensions(viewGroup.getChildAt(i), node.children[i], viewGroup, viewIds);
             }
-            Class viewClass = Class.forName(widget);
-            /* create the actual view object */
-            view = (View) viewClass.getConstructor(Context.class).newInstance(context);
-        } catch (Exception e) {
-            e.printStackTrace();
         }
+    }
+
+    /**
+     * apply data in the properties with placeholders of a view that created by DynamicView, e.g. "${item.title}".
+     * Only the bound properties apply, through the views that recorded when the tree created,
+     * so a template can be created once and bound to many data records
+     * @param root : the view that created by DynamicView
+     * @param data : json object of the data
+     */
+    public static void bind(@NonNull View root, @NonNull JSONObject data) {
+        Inflation inflation = sInflations.get(root);
+        if (inflation != null && inflation.boundViews != null)
+            inflation.boundViews.bind(data);
+    }
+
+    /** no trace sections (default) */
+    public static final int TRACE_OFF = 0;
+    /** sections for inflation, compile, layout properties, holder binding, image decoding and drawable building */
+    public static final int TRACE_PHASES = 1;
+    /** TRACE_PHASES and a section for every view, named by its widget and id */
+    public static final int TRACE_NODES = 2;
+
+    /**
+     * add android.os.Trace sections to see inflation in systrace / Perfetto (since Jelly Bean MR2).
+     * Disabled levels cost a field read, so TRACE_PHASES can stay on in release builds
+     * @param level : TRACE_OFF, TRACE_PHASES or TRACE_NODES
+     */
+    public static void setTraceLevel(int level) {
+        Tracing.setLevel(level);
+    }
+
+    /**
+     * listen every inflation with its timings and counts, see {@link InflationStats} and {@link SlowLayoutReporter}.
+     * Metrics are recorded only while some listener is registered
+     * @param listener : the listener, called in the thread that created the views
+     */
+    public static void addInflationListener(@NonNull InflationListener listener) {
+        InflationMetrics.addListener(listener);
+    }
+
+    public static void removeInflationListener(@NonNull InflationListener listener) {
+        InflationMetrics.removeListener(listener);
+    }
+
+    /**
+     * @param unique : true to give every view an id unique in the process (View.generateViewId()),
+     *               false (default) for ids unique in their tree, that are the same in every inflation of a layout
+     *               and never collide with generated or resource ids, see {@link ViewIds}
+     */
+    public static void setUniqueIds(boolean unique) {
+        ViewIds.setUnique(unique);
+    }
+
+    /**
+     * use internal to walk the template as a tree to create View
+     * @param node : compiled node of the template
+     * @param inflation : state of the inflation, where we keep ids and views of the layout
+     * @return the view that created
+     */
+    static View createViewInternal (@NonNull Context context, LayoutTemplate.Node node, ViewGroup parent, Inflation inflation) {
+        if (node.lazy)
+            return createStub(context, node, parent, inflation);
+        return createNodeView(context, node, parent, inflation);
+    }
 
-        if (view==null) return null;
+    /**
+     * create a placeholder that keeps the node, with the id of the node
+     */
+    private static View createStub (@NonNull Context context, LayoutTemplate.Node node, ViewGroup parent, Inflation inflation) {
+        DynamicViewStub stub = new DynamicViewStub(context, node, inflation);
+        stub.setLayoutParams(DynamicHelper.createLayoutParams(parent));
+        if (node.idIndex >= 0) {
+            int id = ViewIds.idOf(node.idIndex);
+            inflation.viewIds[node.idIndex] = id;
+            inflation.setView(node.idIndex, stub);
+            stub.setId( id );
+        }
+        inflation.addStub(stub);
+        return stub;
+    }
 
+    /**
+     * create the view of the node and its children, lazy children are created as stubs
+     * @param node : compiled node of the template
+     * @param inflation : state of the inflation, where we keep ids and views of the layout
+     * @return the view that created
+     */
+    static View createNodeView (@NonNull Context context, LayoutTemplate.Node node, ViewGroup parent, Inflation inflation) {
+        if (!Tracing.nodes())
+            return buildNodeView(context, node, parent, inflation);
+        /* the section of a ViewGroup contains the sections of its children */
+        Tracing.beginNode(node, inflation);
         try {
+            return buildNodeView(context, node, parent, inflation);
+        } finally {
+            Tracing.end();
+        }
+    }
 
-            /* default Layout in case the user not set it */
-            ViewGroup.LayoutParams params = DynamicHelper.createLayoutParams(parent);
-            view.setLayoutParams(params);
-
-            /* iterrate json and get all properties in array */
-            properties = new ArrayList<>();
-            JSONArray jArray = jsonObject.getJSONArray("properties");
-            if (jArray != null) {
-                for (int i=0;i<jArray.length();i++){
-                    DynamicProperty p = new DynamicProperty(jArray.getJSONObject(i));
-                    if (p.isValid())
-                        properties.add(p);
-                }
-            }
+    private static View buildNodeView (@NonNull Context context, LayoutTemplate.Node node, ViewGroup parent, Inflation inflation) {
+        DynamicViewPool pool = inflation.pool;
+        InflationMetrics metrics = inflation.metrics;
+        long start = metrics == null ? 0 : System.nanoTime();
+        /* Reuse a released view or create the View Object from its registered factory */
+        View view = pool == null ? null : pool.acquire(context, node);
+        if (view==null) {
+            view = ViewFactoryRegistry.createView(context, node.widget);
 
-            /* keep properties obj as a tag */
-            view.setTag(INTERNAL_TAG_ID, properties);
+            if (view==null) return null;
 
-            /* add and integer as a universal id  and keep it in a hashmap */
-            String id = DynamicHelper.applyStyleProperties(view, properties);
-            if (!TextUtils.isEmpty(id)) {
-                /* to target older versions we cannot use View.generateViewId();  */
-                ids.put(id, mCurrentId);
-                view.setId( mCurrentId );
-                mCurrentId++;
-            }
+            if (pool != null)
+                pool.created(view, node);
+        }
 
-            /* if view is type of ViewGroup check for its children view in json */
-            if (view instanceof ViewGroup) {
-                ViewGroup viewGroup = (ViewGroup) view;
-
-                /* parse the aray to get the children views */
-                List<View> views = new ArrayList<>();
-                JSONArray jViews = jsonObject.optJSONArray("views");
-                if (jViews != null) {
-                    int count=jViews.length();
-                    for (int i=0;i<count;i++) {
-                        /* create every child add it in viewGroup and set its tag with its properties */
-                        View dynamicChildView = DynamicView.createViewInternal(context, jViews.getJSONObject(i), parent, ids);
-                        if (dynamicChildView!=null) {
-                            views.add(dynamicChildView);
-                            viewGroup.addView(dynamicChildView);
-                        }
-                    }
-                }
-                /* after create all the children apply layout properties
-                * we need to do this after al children creation to have create all possible ids */
-                for(View v : views) {
-                    DynamicHelper.applyLayoutProperties(v, (List<DynamicProperty>) v.getTag(INTERNAL_TAG_ID), viewGroup, ids);
-                    /* clear tag from properties */
-                    v.setTag(INTERNAL_TAG_ID, null);
+        /* default Layout in case the user not set it, layout properties are applied on it later */
+        ViewGroup.LayoutParams params = DynamicHelper.createLayoutParams(parent);
+        view.setLayoutParams(params);
+
+        long constructed = metrics == null ? 0 : System.nanoTime();
+        DynamicHelper.applyStyleProperties(view, node.properties, node.appliersFor(view.getClass()));
+        if (metrics != null)
+            metrics.nodeCreated(node, constructed - start, System.nanoTime() - constructed);
+
+        if (node.bound && inflation.boundViews != null)
+            inflation.boundViews.add(view, node);
+
+        /* add and integer as a universal id and keep it and the view by the id index */
+        if (node.idIndex >= 0) {
+            /* ids are scoped per tree, see ViewIds */
+            int id = ViewIds.idOf(node.idIndex);
+            inflation.viewIds[node.idIndex] = id;
+            inflation.setView(node.idIndex, view);
+            view.setId( id );
+        }
+
+        /* if view is type of ViewGroup create its children views */
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+
+            List<View> views = new ArrayList<>();
+            List<LayoutTemplate.Node> nodes = new ArrayList<>();
+            for (LayoutTemplate.Node childNode : node.children) {
+                /* create every child add it in viewGroup and keep its node */
+                View dynamicChildView = DynamicView.createViewInternal(context, childNode, viewGroup, inflation);
+                if (dynamicChildView!=null) {
+                    views.add(dynamicChildView);
+                    nodes.add(childNode);
+                    viewGroup.addView(dynamicChildView);
                 }
             }
-
-        } catch (JSONException e) {
-            e.printStackTrace();
+            /* after create all the children apply layout properties
+            * we need to do this after al children creation to have create all possible ids */
+            long layoutStart = metrics == null ? 0 : System.nanoTime();
+            boolean traced = Tracing.phases();
+            if (traced)
+                Tracing.begin("applyLayoutProperties");
+            for (int i=0;i<views.size();i++) {
+                LayoutTemplate.Node childNode = nodes.get(i);
+                DynamicHelper.applyLayoutProperties(views.get(i), childNode.properties, childNode.refs, viewGroup, inflation.viewIds);
+            }
+            if (traced)
+                Tracing.end();
+            if (metrics != null)
+                metrics.layoutNanos += System.nanoTime() - layoutStart;
         }
+
         return view;
     }
 
@@ -0,0 +1,268 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+import android.text.method.TransformationMethod;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+
+/**
+ * Keep the views of released dynamic trees to create the next trees with them,
+ * see {@link DynamicView#createView(Context, LayoutTemplate, ViewGroup, DynamicViewPool)}.
+ * Views are kept by widget, or by node of the template when the pool is keyed by node, at most maxPerType for every key.
+ *
+ * Released views are reset to the state that a new view of their class has (background, padding, text appearance, ...),
+ * the properties of the layout are applied again when they are acquired. Changes of FUNCTION properties are not reset.
+ * Only views that created with the pool can be released in it.
+ */
+public class DynamicViewPool {
+
+    private final int maxPerType;
+    private final boolean keyByNode;
+
+    /* widget or node -> released views */
+    private final HashMap<Object, ArrayDeque<View>> pool = new HashMap<>();
+    /* the node that every view created from */
+    private final WeakHashMap<View, LayoutTemplate.Node> origins = new WeakHashMap<>();
+    /* state of a new view for every view class */
+    private final HashMap<Class, Defaults> defaults = new HashMap<>();
+
+    private int size;
+    private int hitCount;
+    private int missCount;
+
+    /**
+     * @param maxPerType : maximum number of views to keep for every widget
+     */
+    public DynamicViewPool(int maxPerType) {
+        this(maxPerType, false);
+    }
+
+    /**
+     * @param maxPerType : maximum number of views to keep for every key
+     * @param keyByNode : true to reuse views only for the same node of the same template, so the same properties apply again
+     */
+    public DynamicViewPool(int maxPerType, boolean keyByNode) {
+        this.maxPerType = maxPerType;
+        this.keyByNode = keyByNode;
+    }
+
+    /**
+     * detach the tree from its parent and keep its views, the tree must not be used after release
+     * @param root : view that created with this pool
+     */
+    public synchronized void release(@NonNull View root) {
+        ViewParent parent = root.getParent();
+        if (parent instanceof ViewGroup)
+            ((ViewGroup) parent).removeView(root);
+        releaseInternal(root);
+    }
+
+    private void releaseInternal(View view) {
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            for (int i = viewGroup.getChildCount() - 1; i >= 0; i--) {
+                View child = viewGroup.getChildAt(i);
+                viewGroup.removeViewAt(i);
+                releaseInternal(child);
+            }
+        }
+        LayoutTemplate.Node node = origins.get(view);
+        Defaults viewDefaults = defaults.get(view.getClass());
+        if (node == null || viewDefaults == null)
+            return;
+        Object key = key(node);
+        ArrayDeque<View> views = pool.get(key);
+        if (views == null) {
+            views = new ArrayDeque<>();
+            pool.put(key, views);
+        }
+        if (views.size() >= maxPerType) {
+            origins.remove(view);
+            return;
+        }
+        viewDefaults.reset(view);
+        views.push(view);
+        size++;
+    }
+
+    /**
+     * @return a released view for the node or null
+     */
+    synchronized View acquire(@NonNull Context context, @NonNull LayoutTemplate.Node node) {
+        ArrayDeque<View> views = pool.get(key(node));
+        while (views != null && !views.isEmpty()) {
+            View view = views.pop();
+            size--;
+            if (view.getContext() == context) {
+                origins.put(view, node);
+                hitCount++;
+                return view;
+            }
+            /* views of other contexts cannot be used, drop them */
+            origins.remove(view);
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * keep the node of a new view and the default state of its class, before any property applies
+     */
+    synchronized void created(@NonNull View view, @NonNull LayoutTemplate.Node node) {
+        origins.put(view, node);
+        if (!defaults.containsKey(view.getClass()))
+            defaults.put(view.getClass(), new Defaults(view));
+    }
+
+    private Object key(LayoutTemplate.Node node) {
+        return keyByNode ? node : node.widget;
+    }
+
+    /**
+     * remove all released views
+     */
+    public synchronized void clear() {
+        for (ArrayDeque<View> views : pool.values()) {
+            for (View view : views) {
+                origins.remove(view);
+            }
+        }
+        pool.clear();
+        size = 0;
+    }
+
+    /**
+     * @return number of released views in pool
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int hitCount() {
+        return hitCount;
+    }
+
+    public synchronized int missCount() {
+        return missCount;
+    }
+
+    /**
+     * State of a new view, for the properties that {@link DynamicHelper} applies
+     */
+    private static final class Defaults {
+        final Drawable.ConstantState background;
+        final int paddingLeft, paddingTop, paddingRight, paddingBottom;
+        final int minWidth, minHeight;
+        final boolean clickable;
+
+        /* TextView */
+        ColorStateList textColors;
+        float textSize;
+        Typeface typeface;
+        int textGravity;
+        int maxLines;
+        TextUtils.TruncateAt ellipsize;
+        TransformationMethod transformation;
+
+        /* ImageView */
+        ImageView.ScaleType scaleType;
+        boolean adjustViewBounds;
+
+        /* LinearLayout */
+        int orientation;
+        float weightSum;
+        int linearGravity;
+
+        Defaults(View view) {
+            Drawable drawable = view.getBackground();
+            background = drawable == null ? null : drawable.getConstantState();
+            paddingLeft = view.getPaddingLeft();
+            paddingTop = view.getPaddingTop();
+            paddingRight = view.getPaddingRight();
+            paddingBottom = view.getPaddingBottom();
+            minWidth = view.getMinimumWidth();
+            minHeight = view.getMinimumHeight();
+            clickable = view.isClickable();
+            if (view instanceof TextView) {
+                TextView textView = (TextView) view;
+                textColors = textView.getTextColors();
+                textSize = textView.getTextSize();
+                typeface = textView.getTypeface();
+                textGravity = textView.getGravity();
+                maxLines = textView.getMaxLines();
+                ellipsize = textView.getEllipsize();
+                transformation = textView.getTransformationMethod();
+            }
+            if (view instanceof ImageView) {
+                ImageView imageView = (ImageView) view;
+                scaleType = imageView.getScaleType();
+                adjustViewBounds = imageView.getAdjustViewBounds();
+            }
+            if (view instanceof LinearLayout) {
+                LinearLayout linearLayout = (LinearLayout) view;
+                orientation = linearLayout.getOrientation();
+                weightSum = linearLayout.getWeightSum();
+                /* getGravity exists since Nougat, before it the gravity of a new LinearLayout is start|top */
+                linearGravity = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                        ? linearLayout.getGravity() : Gravity.START | Gravity.TOP;
+            }
+        }
+
+        void reset(View view) {
+            view.setId(View.NO_ID);
+            view.setTag(null);
+            view.setOnClickListener(null);
+            view.setOnTouchListener(null);
+            view.setBackground(background == null ? null : background.newDrawable(view.getResources()));
+            view.setPadding(paddingLeft, paddingTop, paddingRight, paddingBottom);
+            view.setMinimumWidth(minWidth);
+            view.setMinimumHeight(minHeight);
+            view.setClickable(clickable);
+            view.setEnabled(true);
+            view.setSelected(false);
+            view.setScaleX(1f);
+            view.setScaleY(1f);
+            view.setVisibility(View.VISIBLE);
+            if (view instanceof TextView) {
+                TextView textView = (TextView) view;
+                textView.setText(null);
+                textView.setTextColor(textColors);
+                textView.setTextSize(TypedValue.COMPLEX_UNIT_PX, textSize);
+                textView.setTypeface(typeface);
+                textView.setGravity(textGravity);
+                textView.setMaxLines(maxLines);
+                textView.setEllipsize(ellipsize);
+                textView.setTransformationMethod(transformation);
+                textView.setCompoundDrawablesWithIntrinsicBounds(null, null, null, null);
+            }
+            if (view instanceof ImageView) {
+                ImageView imageView = (ImageView) view;
+                imageView.setImageDrawable(null);
+                imageView.setScaleType(scaleType);
+                imageView.setAdjustViewBounds(adjustViewBounds);
+            }
+            if (view instanceof LinearLayout) {
+                LinearLayout linearLayout = (LinearLayout) view;
+                linearLayout.setOrientation(orientation);
+                linearLayout.setWeightSum(weightSum);
+                linearLayout.setGravity(linearGravity);
+            }
+        }
+    }
+}
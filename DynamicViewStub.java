@@ -0,0 +1,109 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+/**
+ * Invisible, zero-sized placeholder of a lazy node (LAZY property or visibility gone), like ViewStub.
+ * It keeps the compiled subtree and creates it the first time the stub becomes visible or {@link #inflate()} is called,
+ * see {@link DynamicView#inflateLazy(View, String)}. The created view replaces the stub in its parent
+ * with the same id and LayoutParams. Until then findViewById returns the stub, views of holder fields
+ * are created when the holder is bound, see {@link DynamicViews#get(String)}.
+ */
+public class DynamicViewStub extends View {
+
+    private final LayoutTemplate.Node node;
+    private final Inflation inflation;
+    private View inflated;
+
+    DynamicViewStub(@NonNull Context context, @NonNull LayoutTemplate.Node node, @NonNull Inflation inflation) {
+        super(context);
+        this.node = node;
+        this.inflation = inflation;
+        setWillNotDraw(true);
+        super.setVisibility(GONE);
+    }
+
+    /**
+     * @return true if the subtree is created
+     */
+    public boolean isInflated() {
+        return inflated != null;
+    }
+
+    /**
+     * @return true if the subtree of the stub has the view with the id index
+     */
+    boolean contains(int idIndex) {
+        return contains(node, idIndex);
+    }
+
+    private static boolean contains(LayoutTemplate.Node node, int idIndex) {
+        if (node.idIndex == idIndex)
+            return true;
+        for (LayoutTemplate.Node child : node.children) {
+            if (contains(child, idIndex))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * create the subtree and replace the stub in its parent
+     * @return the view that created, null if the stub has no parent or the view cannot be created
+     */
+    public View inflate() {
+        if (inflated != null)
+            return inflated;
+        ViewParent viewParent = getParent();
+        if (!(viewParent instanceof ViewGroup))
+            return null;
+        ViewGroup parent = (ViewGroup) viewParent;
+
+        View view = DynamicView.createNodeView(getContext(), node, parent, inflation);
+        if (view == null)
+            return null;
+        if (node.idIndex >= 0) {
+            /* keep the id of the stub, views of the tree may reference it */
+            view.setId(getId());
+            inflation.viewIds[node.idIndex] = getId();
+            inflation.setView(node.idIndex, view);
+        }
+        int index = parent.indexOfChild(this);
+        parent.removeViewAt(index);
+        parent.addView(view, index, getLayoutParams());
+        inflated = view;
+        return view;
+    }
+
+    @Override
+    public void setVisibility(int visibility) {
+        if (inflated != null) {
+            inflated.setVisibility(visibility);
+            return;
+        }
+        super.setVisibility(visibility);
+        if (visibility != GONE) {
+            View view = inflate();
+            if (view != null)
+                view.setVisibility(visibility);
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(0, 0);
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+    }
+}
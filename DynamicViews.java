@@ -0,0 +1,62 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import java.util.HashMap;
+
+/**
+ * The views with id of a tree, as recorded while the tree is created, to bind holders without findViewById
+ */
+public final class DynamicViews {
+
+    private final LayoutTemplate template;
+    private final Inflation inflation;
+    private final int[] viewIds;
+    private HashMap<String, Integer> ids;
+
+    DynamicViews(LayoutTemplate template, Inflation inflation) {
+        this.template = template;
+        this.inflation = inflation;
+        this.viewIds = inflation.viewIds;
+    }
+
+    /**
+     * @param id : the id of the view as set in layout
+     * @return the view or null if layout has no view with that id. A lazy view is created, like {@link DynamicView#inflateLazy(View, String)},
+     * so holder fields get the actual view of their type
+     */
+    public View get(@NonNull String id) {
+        int index = template.indexOfId(id);
+        if (index < 0)
+            return null;
+        View view = inflation.view(index);
+        if (view != null && !(view instanceof DynamicViewStub))
+            return view;
+        return DynamicView.inflateLazy(inflation, index);
+    }
+
+    /**
+     * @param id : the id of the view as set in layout
+     * @return the integer id of the view or 0 if layout has no view with that id
+     */
+    public int getId(@NonNull String id) {
+        int index = template.indexOfId(id);
+        return index < 0 ? 0 : viewIds[index];
+    }
+
+    /**
+     * @return the integer ids of the views by the id as set in layout, for holders with a HashMap ids field.
+     * Created on first call, prefer {@link #getId(String)}
+     */
+    public HashMap<String, Integer> ids() {
+        if (ids == null) {
+            ids = new HashMap<>();
+            for (int i = 0; i < viewIds.length; i++) {
+                if (viewIds[i] != 0)
+                    ids.put(template.ids[i], viewIds[i]);
+            }
+        }
+        return ids;
+    }
+}
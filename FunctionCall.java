@@ -0,0 +1,162 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable call of a FUNCTION property, parsed once when the property is created.
+ * e.g. {"function": "setAlpha", "args": [{"primitive": "Float", "value": 0.5}]}
+ *
+ * Methods are resolved once per (view class, name, arg types) for the whole process.
+ */
+final class FunctionCall {
+
+    private static final ConcurrentHashMap<Key, Object> sMethods = new ConcurrentHashMap<>();
+    private static final Object MISSING = new Object();
+
+    /** the json of the property, as set in layout */
+    final JSONObject json;
+    final String name;
+    final Class[] argTypes;
+    final Object[] args;
+
+    /* last class that the call invoked in with its method, most calls of a layout are in one class */
+    private volatile Resolved last;
+
+    private FunctionCall(JSONObject json, String name, Class[] argTypes, Object[] args) {
+        this.json = json;
+        this.name = name;
+        this.argTypes = argTypes;
+        this.args = args;
+    }
+
+    /**
+     * @param json : value of FUNCTION property
+     * @return the call
+     * @throws Exception if function or an argument is not valid
+     */
+    static FunctionCall parse(@NonNull JSONObject json) throws Exception {
+        String name = json.getString("function");
+        JSONArray jArgs = json.optJSONArray("args");
+        int count = jArgs == null ? 0 : jArgs.length();
+        Class[] argTypes = new Class[count];
+        Object[] args = new Object[count];
+        for (int i = 0; i < count; i++) {
+            JSONObject argJsonObj = jArgs.getJSONObject(i);
+            boolean isPrimitive = argJsonObj.has("primitive");
+            String className = argJsonObj.getString( isPrimitive ? "primitive" : "class");
+            String classFullName = className;
+            if (!classFullName.contains("."))
+                classFullName = "java.lang." + className;
+            InflationMetrics.reflectiveLookup();
+            Class clazz = Class.forName(classFullName);
+            argTypes[i] = isPrimitive ? (Class) clazz.getField("TYPE").get(null) : clazz;
+            args[i] = getFromJSON(argJsonObj, "value", clazz);
+        }
+        return new FunctionCall(json, name, argTypes, args);
+    }
+
+    /**
+     * call the function in the view
+     */
+    void invoke(@NonNull View view) throws Exception {
+        Method method = method(view.getClass());
+        if (method == null)
+            throw new NoSuchMethodException(view.getClass().getName() + "." + name + Arrays.toString(argTypes));
+        method.invoke(view, args);
+    }
+
+    private Method method(Class viewClass) {
+        Resolved resolvedLast = last;
+        if (resolvedLast != null && resolvedLast.viewClass == viewClass)
+            return resolvedLast.method;
+
+        Key key = new Key(viewClass, name, argTypes);
+        Object resolved = sMethods.get(key);
+        if (resolved == null) {
+            try {
+                InflationMetrics.reflectiveLookup();
+                resolved = viewClass.getMethod(name, argTypes);
+            } catch (NoSuchMethodException e) {
+                resolved = MISSING;
+            }
+            sMethods.put(key, resolved);
+        }
+        if (resolved == MISSING)
+            return null;
+        Method method = (Method) resolved;
+        last = new Resolved(viewClass, method);
+        return method;
+    }
+
+    private static Object getFromJSON(JSONObject json, String name, Class clazz) throws JSONException {
+        if ((clazz == Integer.class)||(clazz == Integer.TYPE)) {
+            return json.getInt(name);
+        } else if ((clazz == Boolean.class)||(clazz == Boolean.TYPE)) {
+            return json.getBoolean(name);
+        } else if ((clazz == Double.class)||(clazz == Double.TYPE)) {
+            return json.getDouble(name);
+        } else if ((clazz == Float.class)||(clazz == Float.TYPE)) {
+            return (float)json.getDouble(name);
+        } else if ((clazz == Long.class)||(clazz == Long.TYPE)) {
+            return json.getLong(name);
+        } else if (clazz == String.class) {
+            return json.getString(name);
+        } else if (clazz == JSONObject.class) {
+            return json.getJSONObject(name);
+        } else {
+            return json.get(name);
+        }
+    }
+
+    /**
+     * class with its method, immutable so the pair is published at once
+     */
+    private static final class Resolved {
+        final Class viewClass;
+        final Method method;
+
+        Resolved(Class viewClass, Method method) {
+            this.viewClass = viewClass;
+            this.method = method;
+        }
+    }
+
+    /**
+     * key of the method cache
+     */
+    private static final class Key {
+        final Class viewClass;
+        final String name;
+        final Class[] argTypes;
+        final int hash;
+
+        Key(Class viewClass, String name, Class[] argTypes) {
+            this.viewClass = viewClass;
+            this.name = name;
+            this.argTypes = argTypes;
+            this.hash = 31 * (31 * viewClass.hashCode() + name.hashCode()) + Arrays.hashCode(argTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return viewClass == other.viewClass && name.equals(other.name) && Arrays.equals(argTypes, other.argTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
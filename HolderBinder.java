@@ -0,0 +1,18 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Set the views of a holder class, see {@link DynamicViewId}.
+ * The annotation processor of json2view generates a binder named HolderClass_DynamicBinder for every holder
+ * whose annotated fields are not private, holders without generated binder are bound with reflection.
+ * @param <T> : the holder class
+ */
+public interface HolderBinder<T> {
+
+    /**
+     * @param holder : new instance of the holder class
+     * @param views : the views of the layout by their id
+     */
+    void bind(@NonNull T holder, @NonNull DynamicViews views);
+}
@@ -0,0 +1,119 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Create holders and bind their views, the constructor and binder of every holder class are resolved once.
+ * Binder is the generated HolderClass_DynamicBinder if it exists, otherwise a plan of the annotated fields.
+ */
+class HolderBinders {
+
+    static final String BINDER_SUFFIX = "_DynamicBinder";
+
+    private static final ConcurrentHashMap<Class, Plan> sPlans = new ConcurrentHashMap<>();
+
+    /**
+     * @param holderClass : class of the holder, with a public constructor without arguments
+     * @param views : the views of the layout
+     * @return new holder with its views set
+     */
+    @SuppressWarnings("unchecked")
+    static Object create(@NonNull Class holderClass, @NonNull DynamicViews views)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException {
+        Plan plan = sPlans.get(holderClass);
+        if (plan == null) {
+            InflationMetrics.reflectiveLookup();
+            plan = new Plan(holderClass.getConstructor(), binderOf(holderClass));
+            sPlans.put(holderClass, plan);
+        }
+        Object holder = plan.constructor.newInstance();
+        plan.binder.bind(holder, views);
+        return holder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HolderBinder binderOf(Class holderClass) {
+        try {
+            Class binderClass = Class.forName(holderClass.getName() + BINDER_SUFFIX, true, holderClass.getClassLoader());
+            return (HolderBinder) binderClass.getConstructor().newInstance();
+        } catch (ClassNotFoundException ignored) {
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return new ReflectiveBinder(holderClass);
+    }
+
+    private static final class Plan {
+        final Constructor constructor;
+        final HolderBinder binder;
+
+        Plan(Constructor constructor, HolderBinder binder) {
+            this.constructor = constructor;
+            this.binder = binder;
+        }
+    }
+
+    /**
+     * make reference for every {@link DynamicViewId} field to the actual view
+     * if holder contains HashMap<String, Integer> ids it is set with the ids of the views
+     */
+    private static final class ReflectiveBinder implements HolderBinder<Object> {
+        private final Field[] fields;
+        private final String[] ids;
+        private final Field idsField;
+
+        ReflectiveBinder(Class holderClass) {
+            List<Field> fieldList = new ArrayList<>();
+            List<String> idList = new ArrayList<>();
+            Field idsField = null;
+            for (Field field : holderClass.getDeclaredFields()) {
+                if (field.isAnnotationPresent(DynamicViewId.class)) {
+                    /* get the Id of the view. if it is not set in annotation user the variable name */
+                    String id = field.getAnnotation(DynamicViewId.class).id();
+                    if (id.equalsIgnoreCase(""))
+                        id = field.getName();
+                    field.setAccessible(true);
+                    fieldList.add(field);
+                    idList.add(id);
+                } else if ((field.getName().equalsIgnoreCase("ids")) && (field.getType() == HashMap.class)) {
+                    field.setAccessible(true);
+                    idsField = field;
+                }
+            }
+            this.fields = fieldList.toArray(new Field[fieldList.size()]);
+            this.ids = idList.toArray(new String[idList.size()]);
+            this.idsField = idsField;
+        }
+
+        @Override
+        public void bind(@NonNull Object holder, @NonNull DynamicViews views) {
+            for (int i = 0; i < fields.length; i++) {
+                View view = views.get(ids[i]);
+                if (view == null)
+                    continue;
+                try {
+                    fields[i].set(holder, view);
+                } catch (IllegalArgumentException ignored) {
+                } catch (IllegalAccessException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (idsField != null) {
+                try {
+                    idsField.set(holder, views.ids());
+                } catch (IllegalAccessException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.avocarrot.json2view;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.NonNull;
+import android.util.DisplayMetrics;
+import android.util.LruCache;
+
+/**
+ * Decode BASE64 images of layouts.
+ * Images are downsampled to the size of their view (or the screen if not known), decoded as RGB_565 when they
+ * have no alpha and kept in a LRU cache bounded by bytes, so identical images are decoded once and their bitmap
+ * is shared by every view that shows them.
+ */
+public class ImagePipeline {
+
+    private static LruCache<String, Bitmap> sCache = createCache(defaultMaxBytes());
+
+    /**
+     * @param maxBytes : maximum bytes of decoded bitmaps to keep (default 1/8 of the heap)
+     */
+    public static synchronized void setMaxCacheBytes(int maxBytes) {
+        sCache.evictAll();
+        sCache = createCache(maxBytes);
+    }
+
+    /**
+     * remove all decoded bitmaps from cache
+     */
+    public static void evictAll() {
+        cache().evictAll();
+    }
+
+    /**
+     * @return bytes of decoded bitmaps in cache
+     */
+    public static int cacheBytes() {
+        return cache().size();
+    }
+
+    /**
+     * @return the bitmap of the image, from cache or decoded
+     */
+    static Bitmap decode(@NonNull Base64Image image) {
+        int sampleSize = sampleSize(image);
+        Bitmap.Config config = image.opaque ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        String key = image.key + "@" + sampleSize + (image.opaque ? "o" : "a");
+
+        LruCache<String, Bitmap> cache = cache();
+        Bitmap bitmap = cache.get(key);
+        if (bitmap != null && !bitmap.isRecycled()) {
+            InflationMetrics.bitmap(bitmap, false);
+            return bitmap;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = config;
+        boolean traced = Tracing.phases();
+        if (traced)
+            Tracing.begin("decodeBitmap");
+        try {
+            bitmap = image.decode(options);
+        } finally {
+            if (traced)
+                Tracing.end();
+        }
+        if (bitmap != null)
+            cache.put(key, bitmap);
+        InflationMetrics.bitmap(bitmap, true);
+        return bitmap;
+    }
+
+    /**
+     * decode the BASE64 images of the template into the cache, so views only read the cache when they apply them.
+     * Subtrees of lazy nodes are skipped, they are decoded when the stub is inflated
+     * @param template : compiled template
+     */
+    static void preload(@NonNull LayoutTemplate template) {
+        preload(template.root);
+    }
+
+    private static void preload(LayoutTemplate.Node node) {
+        for (DynamicProperty p : node.properties) {
+            if (p.getValue() instanceof Base64Image)
+                decode((Base64Image) p.getValue());
+        }
+        for (LayoutTemplate.Node child : node.children) {
+            if (!child.lazy)
+                preload(child);
+        }
+    }
+
+    /**
+     * @return the largest power of 2 that keeps the image at least as big as its target, the screen if target not known
+     */
+    static int sampleSize(Base64Image image) {
+        DisplayMetrics metrics = Resources.getSystem().getDisplayMetrics();
+        int reqWidth = image.targetWidth > 0 ? image.targetWidth : metrics.widthPixels;
+        int reqHeight = image.targetHeight > 0 ? image.targetHeight : metrics.heightPixels;
+        int sampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0)
+            return sampleSize;
+        while ((image.width / (sampleSize * 2)) >= reqWidth && (image.height / (sampleSize * 2)) >= reqHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private static synchronized LruCache<String, Bitmap> cache() {
+        return sCache;
+    }
+
+    private static int defaultMaxBytes() {
+        return (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    private static LruCache<String, Bitmap> createCache(int maxBytes) {
+        return new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.avocarrot.json2view;
+
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * State of a single inflation of a template, shared by all the nodes of the tree.
+ * The state is mapped weakly by the root view, so views and stubs are weak references that do not keep the root alive
+ */
+final class Inflation {
+
+    /** id names as set in json, indexed by the id index of the template */
+    final String[] ids;
+    /** the actual ids of the views, indexed by the id index of the template */
+    final int[] viewIds;
+    /** pool of views to reuse or null */
+    final DynamicViewPool pool;
+    /** where we keep the views with placeholders or null if template has none, collected again when the tree is patched */
+    BoundViews boundViews;
+    /** metrics that record while the tree is created or null, see {@link InflationMetrics} */
+    InflationMetrics metrics;
+
+    /* the views that have an id, indexed by the id index of the template */
+    private final List<WeakReference<View>> views;
+    /* stubs of the lazy nodes, created when needed */
+    private final List<WeakReference<DynamicViewStub>> stubs = new ArrayList<>();
+
+    Inflation(LayoutTemplate template, DynamicViewPool pool) {
+        this.ids = template.ids;
+        this.viewIds = new int[template.ids.length];
+        this.views = new ArrayList<>(template.ids.length);
+        for (int i = 0; i < template.ids.length; i++) {
+            views.add(null);
+        }
+        this.pool = pool;
+        this.boundViews = template.boundCount > 0 ? new BoundViews(template.boundCount) : null;
+    }
+
+    /**
+     * @param index : id index of the template
+     * @return the view with the id or null if it is not created or not in use any more
+     */
+    View view(int index) {
+        WeakReference<View> reference = views.get(index);
+        return reference == null ? null : reference.get();
+    }
+
+    void setView(int index, View view) {
+        views.set(index, new WeakReference<>(view));
+    }
+
+    void addStub(DynamicViewStub stub) {
+        stubs.add(new WeakReference<>(stub));
+    }
+
+    /**
+     * @return the stubs that are still in use
+     */
+    List<DynamicViewStub> stubs() {
+        List<DynamicViewStub> result = new ArrayList<>(stubs.size());
+        for (WeakReference<DynamicViewStub> reference : stubs) {
+            DynamicViewStub stub = reference.get();
+            if (stub != null)
+                result.add(stub);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,13 @@
+package com.avocarrot.json2view;
+
+/**
+ * Listener of every inflation of DynamicView, see {@link DynamicView#addInflationListener(InflationListener)}.
+ * Called in the thread that created the views, right after the views are created
+ */
+public interface InflationListener {
+
+    /**
+     * @param metrics : timings and counts of the inflation
+     */
+    void onInflated(InflationMetrics metrics);
+}
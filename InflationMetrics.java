@@ -0,0 +1,255 @@
+package com.avocarrot.json2view;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Timings and counts of a single inflation, delivered to {@link InflationListener}s.
+ *
+ * Phases :
+ * - parse : reading the json and building the template, without the conversion of values (0 for compiled templates)
+ * - convert : conversion of property values while the template is built
+ * - construct : creation of the views (or reuse from a pool)
+ * - style : style properties applied in the views
+ * - layout : LayoutParams and layout properties
+ * - bind holder : creation of the holder and assignment of its views
+ *
+ * Metrics are recorded only while some listener is registered. Work that runs in other threads
+ * (parallel compile, asynchronous parse) is not counted, nor views of lazy nodes that created later.
+ */
+public final class InflationMetrics {
+
+    private static final List<InflationListener> sListeners = new CopyOnWriteArrayList<>();
+    private static volatile boolean sEnabled = false;
+    /* the inflation that the thread records */
+    private static final ThreadLocal<InflationMetrics> sCurrent = new ThreadLocal<>();
+
+    private final long start = System.nanoTime();
+    private LayoutTemplate template;
+    private int nodeCount;
+    private int depth;
+    private long totalNanos;
+    long parseNanos;
+    long convertNanos;
+    long constructNanos;
+    long styleNanos;
+    long layoutNanos;
+    long bindHolderNanos;
+    private long bitmapBytes;
+    private int bitmapsDecoded;
+    private int bitmapCacheHits;
+    private int reflectiveLookups;
+    private LayoutTemplate.Node slowestNode;
+    private long slowestNodeNanos;
+    private String slowestNodePath;
+
+    private InflationMetrics() {
+    }
+
+    static void addListener(@NonNull InflationListener listener) {
+        sListeners.add(listener);
+        sEnabled = true;
+    }
+
+    static void removeListener(@NonNull InflationListener listener) {
+        sListeners.remove(listener);
+        sEnabled = !sListeners.isEmpty();
+    }
+
+    /**
+     * start to record an inflation in this thread
+     * @return the metrics to record or null if nobody listens or an outer call already records
+     */
+    static InflationMetrics begin() {
+        if (!sEnabled || sCurrent.get() != null)
+            return null;
+        InflationMetrics metrics = new InflationMetrics();
+        sCurrent.set(metrics);
+        return metrics;
+    }
+
+    /**
+     * stop recording and deliver the metrics to the listeners
+     * @param metrics : the metrics returned by {@link #begin()}, or null
+     * @param template : the template that inflated or null if it is not valid
+     */
+    static void end(InflationMetrics metrics, LayoutTemplate template) {
+        if (metrics == null)
+            return;
+        sCurrent.remove();
+        metrics.totalNanos = System.nanoTime() - metrics.start;
+        metrics.template = template;
+        if (template != null) {
+            metrics.depth = depthOf(template.root);
+            if (metrics.slowestNode != null)
+                metrics.slowestNodePath = pathOf(template, template.root, -1, metrics.slowestNode);
+        }
+        for (InflationListener listener : sListeners) {
+            try {
+                listener.onInflated(metrics);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return the metrics that the thread records or null
+     */
+    static InflationMetrics current() {
+        return sEnabled ? sCurrent.get() : null;
+    }
+
+    /**
+     * count a lookup of a class, constructor, method or field by reflection
+     */
+    static void reflectiveLookup() {
+        InflationMetrics metrics = current();
+        if (metrics != null)
+            metrics.reflectiveLookups++;
+    }
+
+    /**
+     * count an image, decoded or found in cache
+     */
+    static void bitmap(Bitmap bitmap, boolean decoded) {
+        InflationMetrics metrics = current();
+        if (metrics == null || bitmap == null)
+            return;
+        if (decoded) {
+            metrics.bitmapsDecoded++;
+            metrics.bitmapBytes += bitmap.getByteCount();
+        } else {
+            metrics.bitmapCacheHits++;
+        }
+    }
+
+    /**
+     * @param constructNanos : time to create the view of the node
+     * @param styleNanos : time to apply its style properties
+     */
+    void nodeCreated(LayoutTemplate.Node node, long constructNanos, long styleNanos) {
+        nodeCount++;
+        this.constructNanos += constructNanos;
+        this.styleNanos += styleNanos;
+        if (constructNanos + styleNanos > slowestNodeNanos) {
+            slowestNodeNanos = constructNanos + styleNanos;
+            slowestNode = node;
+        }
+    }
+
+    private static int depthOf(LayoutTemplate.Node node) {
+        int depth = 0;
+        for (LayoutTemplate.Node child : node.children) {
+            depth = Math.max(depth, depthOf(child));
+        }
+        return depth + 1;
+    }
+
+    /**
+     * @param index : position of node in its parent, -1 for root
+     * @return path from node to the first occurrence of target, e.g. "RelativeLayout#root/LinearLayout[1]/TextView#title",
+     * or null if target is not in the subtree
+     */
+    private static String pathOf(LayoutTemplate template, LayoutTemplate.Node node, int index, LayoutTemplate.Node target) {
+        String name = node.widget.substring(node.widget.lastIndexOf('.') + 1);
+        /* views without id are named by their position */
+        if (node.idIndex >= 0)
+            name += "#" + template.ids[node.idIndex];
+        else if (index >= 0)
+            name += "[" + index + "]";
+        if (node == target)
+            return name;
+        for (int i = 0; i < node.children.length; i++) {
+            String path = pathOf(template, node.children[i], i, target);
+            if (path != null)
+                return name + "/" + path;
+        }
+        return null;
+    }
+
+    /** @return the template that inflated, null if layout is not valid */
+    public LayoutTemplate getTemplate() {
+        return template;
+    }
+
+    /** @return number of views that created, lazy nodes are not counted */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /** @return levels of the layout tree */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public long getConvertNanos() {
+        return convertNanos;
+    }
+
+    public long getConstructNanos() {
+        return constructNanos;
+    }
+
+    public long getStyleNanos() {
+        return styleNanos;
+    }
+
+    public long getLayoutNanos() {
+        return layoutNanos;
+    }
+
+    public long getBindHolderNanos() {
+        return bindHolderNanos;
+    }
+
+    /** @return bytes of the bitmaps that decoded in this inflation */
+    public long getBitmapBytes() {
+        return bitmapBytes;
+    }
+
+    public int getBitmapsDecoded() {
+        return bitmapsDecoded;
+    }
+
+    /** @return images that found already decoded in cache */
+    public int getBitmapCacheHits() {
+        return bitmapCacheHits;
+    }
+
+    /** @return lookups of classes, constructors, methods or fields by reflection, cached lookups are not counted */
+    public int getReflectiveLookups() {
+        return reflectiveLookups;
+    }
+
+    /** @return path of the node whose view took longest to create and style, or null */
+    public String getSlowestNodePath() {
+        return slowestNodePath;
+    }
+
+    public long getSlowestNodeNanos() {
+        return slowestNodeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%.2f ms, %d views, depth %d (parse %.2f, convert %.2f, construct %.2f, style %.2f, layout %.2f, holder %.2f ms), "
+                        + "bitmaps %d decoded %d bytes %d cached, %d reflective lookups, slowest %s %.2f ms",
+                totalNanos / 1e6, nodeCount, depth, parseNanos / 1e6, convertNanos / 1e6, constructNanos / 1e6,
+                styleNanos / 1e6, layoutNanos / 1e6, bindHolderNanos / 1e6, bitmapsDecoded, bitmapBytes, bitmapCacheHits,
+                reflectiveLookups, slowestNodePath, slowestNodeNanos / 1e6);
+    }
+}
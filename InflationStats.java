@@ -0,0 +1,134 @@
+package com.avocarrot.json2view;
+
+import java.util.Locale;
+
+/**
+ * Aggregate of the inflations since created or reset, register it with {@link DynamicView#addInflationListener(InflationListener)}.
+ * Durations are kept in histograms of power of 2 buckets in milliseconds : [0,1), [1,2), [2,4) ... [512, +)
+ */
+public class InflationStats implements InflationListener {
+
+    /** number of buckets of the histograms */
+    public static final int BUCKETS = 11;
+
+    private int count;
+    private final long[] total = new long[BUCKETS];
+    private final long[] construct = new long[BUCKETS];
+    private final long[] style = new long[BUCKETS];
+    /* sums of all inflations */
+    private long totalNanos;
+    private long parseNanos;
+    private long convertNanos;
+    private long constructNanos;
+    private long styleNanos;
+    private long layoutNanos;
+    private long bindHolderNanos;
+    private long nodes;
+    private long bitmapBytes;
+    private long reflectiveLookups;
+
+    @Override
+    public synchronized void onInflated(InflationMetrics metrics) {
+        count++;
+        total[bucketOf(metrics.getTotalNanos())]++;
+        construct[bucketOf(metrics.getConstructNanos())]++;
+        style[bucketOf(metrics.getStyleNanos())]++;
+        totalNanos += metrics.getTotalNanos();
+        parseNanos += metrics.getParseNanos();
+        convertNanos += metrics.getConvertNanos();
+        constructNanos += metrics.getConstructNanos();
+        styleNanos += metrics.getStyleNanos();
+        layoutNanos += metrics.getLayoutNanos();
+        bindHolderNanos += metrics.getBindHolderNanos();
+        nodes += metrics.getNodeCount();
+        bitmapBytes += metrics.getBitmapBytes();
+        reflectiveLookups += metrics.getReflectiveLookups();
+    }
+
+    /**
+     * @return the bucket of a duration, see {@link #getTotalHistogram()}
+     */
+    static int bucketOf(long nanos) {
+        long millis = nanos / 1000000;
+        int bucket = 0;
+        while (millis > 0 && bucket < BUCKETS - 1) {
+            millis >>= 1;
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * @return the lower bound in milliseconds of the bucket
+     */
+    public static long bucketStartMillis(int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * @return number of inflations by their total duration
+     */
+    public synchronized long[] getTotalHistogram() {
+        return total.clone();
+    }
+
+    /**
+     * @return number of inflations by the duration of their construct phase
+     */
+    public synchronized long[] getConstructHistogram() {
+        return construct.clone();
+    }
+
+    /**
+     * @return number of inflations by the duration of their style phase
+     */
+    public synchronized long[] getStyleHistogram() {
+        return style.clone();
+    }
+
+    /**
+     * @param percentile : between 0 and 100, e.g. 90
+     * @return the upper bound in milliseconds of the bucket that contains the percentile of total durations,
+     * Long.MAX_VALUE if it is the last bucket
+     */
+    public synchronized long percentileMillis(double percentile) {
+        long rank = (long) Math.ceil(percentile / 100 * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += total[i];
+            if (seen >= rank && seen > 0)
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : bucketStartMillis(i + 1);
+        }
+        return 0;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total[i] = construct[i] = style[i] = 0;
+        }
+        totalNanos = parseNanos = convertNanos = constructNanos = styleNanos = layoutNanos = bindHolderNanos = 0;
+        nodes = bitmapBytes = reflectiveLookups = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (count == 0)
+            return "no inflations";
+        StringBuilder histogram = new StringBuilder();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (total[i] > 0)
+                histogram.append(' ').append(bucketStartMillis(i)).append("ms:").append(total[i]);
+        }
+        return String.format(Locale.US,
+                "%d inflations, avg %.2f ms (parse %.2f, convert %.2f, construct %.2f, style %.2f, layout %.2f, holder %.2f ms), "
+                        + "avg %d views, %d bitmap bytes, %d reflective lookups, histogram%s",
+                count, totalNanos / 1e6 / count, parseNanos / 1e6 / count, convertNanos / 1e6 / count,
+                constructNanos / 1e6 / count, styleNanos / 1e6 / count, layoutNanos / 1e6 / count,
+                bindHolderNanos / 1e6 / count, nodes / count, bitmapBytes, reflectiveLookups, histogram);
+    }
+}
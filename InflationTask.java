@@ -0,0 +1,33 @@
+package com.avocarrot.json2view;
+
+/**
+ * Handle of an asynchronous inflation started with DynamicView.inflateAsync
+ */
+public class InflationTask {
+
+    private volatile boolean cancelled = false;
+    private volatile boolean finished = false;
+
+    /**
+     * cancel the inflation, the callback will not be called.
+     * Work that already started on a background thread completes, but its result is dropped
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return true if the callback is called or the task is cancelled
+     */
+    public boolean isDone() {
+        return finished || cancelled;
+    }
+
+    void setFinished() {
+        finished = true;
+    }
+}
@@ -0,0 +1,218 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Patch a tree that created from a template to match another template, see {@link DynamicView#update(View, org.json.JSONObject)}.
+ *
+ * Nodes are matched by their id, nodes without id by their position in parent. For every matched view the style
+ * properties are applied again from the first one that changed, in order, so properties that depend on the
+ * order (e.g. PADDING then PADDING_LEFT) end as in a new view; unchanged leading properties are skipped. The subtree is created again when the widget changed, a style
+ * property is removed (it cannot be reverted) or the children cannot be matched (added or removed).
+ * Matched children that moved are reordered, their views are kept.
+ */
+class LayoutPatcher {
+
+    private final Context context;
+    private final LayoutTemplate oldTemplate;
+    private final LayoutTemplate newTemplate;
+    /* ids of the views, indexed by the id index of the new template, and state of the subtrees created again */
+    private final Inflation inflation;
+    private final int[] viewIds;
+
+    LayoutPatcher(@NonNull Context context, @NonNull LayoutTemplate oldTemplate, @NonNull LayoutTemplate newTemplate) {
+        this.context = context;
+        this.oldTemplate = oldTemplate;
+        this.newTemplate = newTemplate;
+        this.inflation = new Inflation(newTemplate, null);
+        this.viewIds = inflation.viewIds;
+    }
+
+    /**
+     * @return the state of the patched tree, ids and views by the id index of the new template
+     */
+    Inflation getInflation() {
+        return inflation;
+    }
+
+    /**
+     * @param root : the view that created from the old template
+     * @return the root of the patched tree, a new view if root is created again
+     */
+    View patch(@NonNull View root) {
+        ViewParent rootParent = root.getParent();
+        ViewGroup parent = rootParent instanceof ViewGroup ? (ViewGroup) rootParent : null;
+        View view = patchNode(oldTemplate.root, newTemplate.root, root, parent);
+        if (view == null)
+            return null;
+        if (view != root && parent != null) {
+            int index = parent.indexOfChild(root);
+            parent.removeViewAt(index);
+            parent.addView(view, index);
+        }
+        applyLayout(view, newTemplate.root, parent);
+        return view;
+    }
+
+    /**
+     * @return the view patched or the view that created for the new node
+     */
+    private View patchNode(LayoutTemplate.Node oldNode, LayoutTemplate.Node newNode, View view, ViewGroup parent) {
+        if (view instanceof DynamicViewStub || !oldNode.widget.equals(newNode.widget) || removesStyle(oldNode, newNode))
+            return DynamicView.createViewInternal(context, newNode, parent, inflation);
+
+        if (view instanceof ViewGroup && !patchChildren(oldNode, newNode, (ViewGroup) view))
+            return DynamicView.createViewInternal(context, newNode, parent, inflation);
+
+        /* skip the style properties that are applied in the same order, apply the rest */
+        PropertyApplier[] appliers = newNode.appliersFor(view.getClass());
+        for (int i = firstChangedStyle(oldNode, newNode); i < newNode.properties.length; i++) {
+            if (appliers[i] != null && !newNode.properties[i].isBound()) {
+                try {
+                    appliers[i].apply(view, newNode.properties[i]);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        if (newNode.idIndex >= 0) {
+            /* scoped ids follow the id index of the new template, unique ids are kept */
+            if (!ViewIds.isUnique() || view.getId() <= 0)
+                view.setId(ViewIds.idOf(newNode.idIndex));
+            viewIds[newNode.idIndex] = view.getId();
+            inflation.setView(newNode.idIndex, view);
+        } else {
+            view.setId(View.NO_ID);
+        }
+        return view;
+    }
+
+    /**
+     * match the children of the nodes and patch them
+     * @return false if children cannot be matched and the viewGroup must be created again
+     */
+    private boolean patchChildren(LayoutTemplate.Node oldNode, LayoutTemplate.Node newNode, ViewGroup viewGroup) {
+        /* views are created for every child node unless its widget cannot be created */
+        if (viewGroup.getChildCount() != oldNode.children.length
+                || oldNode.children.length != newNode.children.length)
+            return false;
+
+        StringIntMap oldById = new StringIntMap(oldNode.children.length);
+        for (int i = 0; i < oldNode.children.length; i++) {
+            String id = idOf(oldTemplate, oldNode.children[i]);
+            if (id != null)
+                oldById.put(id, i);
+        }
+
+        int count = newNode.children.length;
+        int[] matches = new int[count];
+        boolean[] used = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            String id = idOf(newTemplate, newNode.children[i]);
+            int match;
+            if (id != null)
+                match = oldById.get(id, -1);
+            else
+                match = idOf(oldTemplate, oldNode.children[i]) == null ? i : -1;
+            if (match < 0 || used[match])
+                return false;
+            matches[i] = match;
+            used[match] = true;
+        }
+
+        List<View> oldViews = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            oldViews.add(viewGroup.getChildAt(i));
+        }
+        List<View> views = new ArrayList<>(count);
+        boolean changed = false;
+        for (int i = 0; i < count; i++) {
+            View oldView = oldViews.get(matches[i]);
+            View view = patchNode(oldNode.children[matches[i]], newNode.children[i], oldView, viewGroup);
+            if (view == null)
+                return false;
+            changed |= view != oldView || matches[i] != i;
+            views.add(view);
+        }
+
+        if (changed) {
+            viewGroup.removeAllViews();
+            for (View view : views) {
+                viewGroup.addView(view);
+            }
+        }
+        /* after all children are patched, all ids are known */
+        for (int i = 0; i < count; i++) {
+            applyLayout(views.get(i), newNode.children[i], viewGroup);
+        }
+        return true;
+    }
+
+    /**
+     * apply the layout properties on new LayoutParams, previous rules and margins do not remain
+     */
+    private void applyLayout(View view, LayoutTemplate.Node node, ViewGroup parent) {
+        view.setLayoutParams(DynamicHelper.createLayoutParams(parent));
+        DynamicHelper.applyLayoutProperties(view, node.properties, node.refs, parent, viewIds);
+    }
+
+    /**
+     * @return true if a style property of old node is not set in new node
+     */
+    private static boolean removesStyle(LayoutTemplate.Node oldNode, LayoutTemplate.Node newNode) {
+        for (int i = 0; i < oldNode.properties.length; i++) {
+            if (oldNode.appliers[i] == null)
+                continue;
+            DynamicProperty p = oldNode.properties[i];
+            boolean found = false;
+            for (DynamicProperty n : newNode.properties) {
+                if (n.getName() == p.getName() && (p.getCustomName() == null || p.getCustomName().equals(n.getCustomName()))) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * compare the style properties of the nodes in the order they are applied
+     * @return index in new node properties of the first style property that differs from old node, or that old node
+     * does not have at the same position; properties length if every style property is already applied
+     */
+    private static int firstChangedStyle(LayoutTemplate.Node oldNode, LayoutTemplate.Node newNode) {
+        int o = nextStyle(oldNode, 0);
+        int n = nextStyle(newNode, 0);
+        while (n < newNode.properties.length) {
+            if (o >= oldNode.properties.length || !oldNode.properties[o].sameAs(newNode.properties[n]))
+                return n;
+            o = nextStyle(oldNode, o + 1);
+            n = nextStyle(newNode, n + 1);
+        }
+        return n;
+    }
+
+    /**
+     * @return index of the first style property from index on, properties length if none
+     */
+    private static int nextStyle(LayoutTemplate.Node node, int index) {
+        while (index < node.properties.length && (node.appliers[index] == null || node.properties[index].isBound())) {
+            index++;
+        }
+        return index;
+    }
+
+    private static String idOf(LayoutTemplate template, LayoutTemplate.Node node) {
+        return node.idIndex < 0 ? null : template.ids[node.idIndex];
+    }
+}
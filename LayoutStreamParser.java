@@ -0,0 +1,194 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compile a json layout to {@link LayoutTemplate} while the tokens are read, without building
+ * the whole json as JSONObject. Properties are created and converted as soon as they are read,
+ * only the value of DRAWABLE and JSON properties is materialized as JSONObject.
+ */
+class LayoutStreamParser {
+
+    /**
+     * node as read from the stream, its widget may come after its properties and views
+     */
+    private static class RawNode {
+        String widget;
+        final List<DynamicProperty> properties = new ArrayList<>();
+        final List<RawNode> children = new ArrayList<>();
+    }
+
+    /**
+     * @param reader : reader of the json layout
+     * @return the compiled template or null if json is not a valid layout
+     */
+    static LayoutTemplate parse(@NonNull Reader reader) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        try {
+            RawNode root = readNode(jsonReader);
+            LayoutTemplate.Compiler compiler = new LayoutTemplate.Compiler();
+            LayoutTemplate.Node rootNode = createNode(compiler, root);
+            if (rootNode == null)
+                return null;
+            return compiler.build(rootNode);
+        } finally {
+            jsonReader.close();
+        }
+    }
+
+    /**
+     * create the nodes in the same order as {@link LayoutTemplate.Compiler#compileNode(JSONObject)}
+     * so ids get the same indices
+     */
+    private static LayoutTemplate.Node createNode(LayoutTemplate.Compiler compiler, RawNode raw) {
+        if (raw.widget == null)
+            return null;
+        List<LayoutTemplate.Node> children = new ArrayList<>(raw.children.size());
+        for (RawNode rawChild : raw.children) {
+            LayoutTemplate.Node child = createNode(compiler, rawChild);
+            if (child != null)
+                children.add(child);
+        }
+        return compiler.createNode(ViewFactoryRegistry.normalizeWidget(raw.widget), raw.properties, children);
+    }
+
+    private static RawNode readNode(JsonReader reader) throws IOException {
+        RawNode node = new RawNode();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            JsonToken token = reader.peek();
+            if (key.equals("widget") && token == JsonToken.STRING) {
+                node.widget = reader.nextString();
+            } else if (key.equals("properties") && token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        DynamicProperty p = readProperty(reader);
+                        if (p.isValid())
+                            node.properties.add(p);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endArray();
+            } else if (key.equals("views") && token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        node.children.add(readNode(reader));
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return node;
+    }
+
+    private static DynamicProperty readProperty(JsonReader reader) throws IOException {
+        String name = null;
+        String type = null;
+        Object value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            switch (key) {
+                case "name":
+                    name = readString(reader);
+                    break;
+                case "type":
+                    type = readString(reader);
+                    break;
+                case "value":
+                    value = readValue(reader);
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return new DynamicProperty(name, type, value);
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        Object value = readValue(reader);
+        return (value == null || value == JSONObject.NULL) ? null : value.toString();
+    }
+
+    /**
+     * @return the value as JSONObject would keep it
+     */
+    private static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT: {
+                JSONObject object = new JSONObject();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    try {
+                        object.put(name, readValue(reader));
+                    } catch (JSONException e) {
+                        throw new IOException(e.getMessage());
+                    }
+                }
+                reader.endObject();
+                return object;
+            }
+            case BEGIN_ARRAY: {
+                JSONArray array = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.put(readValue(reader));
+                }
+                reader.endArray();
+                return array;
+            }
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                return parseNumber(reader.nextString());
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * numbers as JSONObject keeps them, Integer, Long or Double
+     */
+    private static Object parseNumber(String number) {
+        try {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                long l = Long.parseLong(number);
+                if (l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE)
+                    return (int) l;
+                return l;
+            }
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            return number;
+        }
+    }
+}
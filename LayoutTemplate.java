@@ -0,0 +1,386 @@
+package com.avocarrot.json2view;
+
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.text.TextUtils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Compiled, immutable and context independent form of a json layout.
+ * Properties are already converted and string ids are resolved to indices, so a template
+ * can be inflated many times with {@link DynamicView#createView(android.content.Context, LayoutTemplate, android.view.ViewGroup)}
+ * without touching the json again.
+ * Values with placeholders ("${item.title}") are compiled once and applied with {@link DynamicView#bind(android.view.View, JSONObject)}.
+ * Resource references can be resolved once after compile with {@link ResourceResolver#resolve(android.content.Context, LayoutTemplate)}.
+ */
+public final class LayoutTemplate {
+
+    /** root node of the layout tree */
+    final Node root;
+    /** id names as set in json, the position in the array is the id index used by the nodes */
+    final String[] ids;
+    /** total number of nodes in the tree */
+    final int nodeCount;
+    /** number of nodes with placeholders */
+    final int boundCount;
+    /* id name -> id index */
+    private final StringIntMap idIndices;
+
+    private LayoutTemplate(Node root, String[] ids, StringIntMap idIndices, int nodeCount, int boundCount) {
+        this.root = root;
+        this.ids = ids;
+        this.idIndices = idIndices;
+        this.nodeCount = nodeCount;
+        this.boundCount = boundCount;
+    }
+
+    /**
+     * @return the id index of the id name or -1 if no view has that id
+     */
+    int indexOfId(String id) {
+        return idIndices.get(id, -1);
+    }
+
+    /**
+     * @return number of views that every inflation of this template creates
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    private static volatile boolean sParallel = false;
+
+    /**
+     * @param parallel : true to prepare the subtrees of large json layouts in parallel (since Lollipop), see {@link ParallelCompiler}.
+     *                 Layouts read from a stream are always compiled while read
+     */
+    public static void setParallel(boolean parallel) {
+        sParallel = parallel && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    /**
+     * compile a json layout to a template
+     * @param jsonObject : json object
+     * @return the compiled template or null if json is not a valid layout
+     */
+    public static LayoutTemplate compile(@NonNull JSONObject jsonObject) {
+        if (sParallel)
+            return ParallelCompiler.compile(jsonObject);
+        Compiler compiler = new Compiler();
+        Node root = compiler.compileNode(jsonObject);
+        if (root == null)
+            return null;
+        return compiler.build(root);
+    }
+
+    /**
+     * compile a json layout to a template while it is read, without building the json as JSONObject
+     * @param reader : reader of the json layout, closed when compile ends
+     * @return the compiled template or null if json is not a valid layout
+     */
+    public static LayoutTemplate compile(@NonNull Reader reader) {
+        try {
+            return LayoutStreamParser.parse(reader);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * A single view of the layout
+     */
+    static final class Node {
+        /** full class name of the view */
+        final String widget;
+        /** class of the view or null if widget is not a class */
+        final Class widgetClass;
+        /** valid properties of the view, already converted */
+        final DynamicProperty[] properties;
+        /** for every property its applier for widgetClass or null if it is not a style property */
+        final PropertyApplier[] appliers;
+        /** generation of the appliers when they were resolved, see {@link PropertyAppliers#generation()} */
+        final int generation;
+        /** for every property the index of the id it references or -1 */
+        final int[] refs;
+        /** index of the id of this view or -1 if view has no id */
+        final int idIndex;
+        /** true if some properties have placeholders */
+        final boolean bound;
+        /** true if the view is created when it is first shown, see {@link DynamicViewStub} */
+        final boolean lazy;
+        final Node[] children;
+        /* computed once the node is shared, its arrays do not change after */
+        private int hash;
+
+        Node(String widget, Class widgetClass, DynamicProperty[] properties, PropertyApplier[] appliers, int generation, int[] refs, int idIndex, boolean bound, boolean lazy, Node[] children) {
+            this.widget = widget;
+            this.widgetClass = widgetClass;
+            this.properties = properties;
+            this.appliers = appliers;
+            this.generation = generation;
+            this.refs = refs;
+            this.idIndex = idIndex;
+            this.bound = bound;
+            this.lazy = lazy;
+            this.children = children;
+        }
+
+        /**
+         * @return the appliers of the properties for the class of the view that actually created
+         */
+        PropertyApplier[] appliersFor(Class viewClass) {
+            if (viewClass == widgetClass)
+                return appliers;
+            return PropertyAppliers.resolve(viewClass, properties);
+        }
+
+        /**
+         * nodes are equal when they create the same views with the same appliers, children are compared by instance
+         * since equal children are already shared, see {@link TemplateInterner}
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Node))
+                return false;
+            Node other = (Node) o;
+            if (idIndex != other.idIndex || generation != other.generation || bound != other.bound || lazy != other.lazy || !widget.equals(other.widget)
+                    || !Arrays.equals(properties, other.properties) || !Arrays.equals(refs, other.refs)
+                    || children.length != other.children.length)
+                return false;
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] != other.children[i])
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0) {
+                h = widget.hashCode();
+                h = 31 * h + Arrays.hashCode(properties);
+                h = 31 * h + Arrays.hashCode(refs);
+                h = 31 * h + idIndex;
+                h = 31 * h + generation;
+                for (Node child : children) {
+                    h = 31 * h + System.identityHashCode(child);
+                }
+                hash = h;
+            }
+            return h;
+        }
+    }
+
+    /**
+     * Walk the json once and keep the id names seen, to resolve them to indices
+     */
+    static final class Compiler {
+
+        private final StringIntMap idIndices = new StringIntMap();
+        private final List<String> idNames = new ArrayList<>();
+        /* layout properties that reference an id, resolved after the whole tree is read */
+        private final List<int[]> pendingRefs = new ArrayList<>();
+        private final List<DynamicProperty[]> pendingProperties = new ArrayList<>();
+        private int nodeCount = 0;
+        private int boundCount = 0;
+
+        Node compileNode(JSONObject jsonObject) {
+            String widget;
+            try {
+                /* If not full package is available the view is from android.widget */
+                widget = ViewFactoryRegistry.normalizeWidget(jsonObject.getString("widget"));
+            } catch (JSONException e) {
+                e.printStackTrace();
+                return null;
+            }
+
+            List<DynamicProperty> properties = new ArrayList<>();
+            JSONArray jArray = jsonObject.optJSONArray("properties");
+            if (jArray != null) {
+                for (int i = 0; i < jArray.length(); i++) {
+                    JSONObject jProperty = jArray.optJSONObject(i);
+                    if (jProperty == null)
+                        continue;
+                    DynamicProperty p = new DynamicProperty(jProperty);
+                    if (p.isValid())
+                        properties.add(p);
+                }
+            }
+
+            List<Node> children = new ArrayList<>();
+            JSONArray jViews = jsonObject.optJSONArray("views");
+            if (jViews != null) {
+                for (int i = 0; i < jViews.length(); i++) {
+                    JSONObject jView = jViews.optJSONObject(i);
+                    if (jView == null)
+                        continue;
+                    Node child = compileNode(jView);
+                    if (child != null)
+                        children.add(child);
+                }
+            }
+
+            return createNode(widget, properties, children);
+        }
+
+        /**
+         * create a node from already converted properties and register its id
+         */
+        Node createNode(String widget, List<DynamicProperty> properties, List<Node> children) {
+            Class widgetClass = ViewFactoryRegistry.widgetClass(widget);
+            /* read before the appliers are resolved, so the node never passes for one compiled after a registration that happens meanwhile */
+            int generation = PropertyAppliers.generation();
+
+            /* drop properties that cannot apply in this widget, when we know its class */
+            List<DynamicProperty> applicable = new ArrayList<>(properties.size());
+            List<PropertyApplier> appliers = new ArrayList<>(properties.size());
+            for (DynamicProperty p : properties) {
+                /* only style properties can be bound, ids and layout are resolved when views are created */
+                if (p.isBound() && (p.getName() == DynamicProperty.NAME.ID || isLayout(p.getName())))
+                    continue;
+                PropertyApplier applier = PropertyAppliers.get(widgetClass, p);
+                if (applier != null || widgetClass == null || p.getName() == DynamicProperty.NAME.ID
+                        || p.getName() == DynamicProperty.NAME.LAZY || isLayout(p.getName())) {
+                    applicable.add(p);
+                    appliers.add(applier);
+                }
+            }
+
+            targetImages(applicable);
+
+            DynamicProperty[] props = applicable.toArray(new DynamicProperty[applicable.size()]);
+            int[] refs = new int[props.length];
+
+            int idIndex = -1;
+            boolean bound = false;
+            boolean lazy = false;
+            for (DynamicProperty p : props) {
+                bound |= p.isBound();
+                /* marked lazy or gone, the subtree may never be shown */
+                if (p.getName() == DynamicProperty.NAME.LAZY && p.getType() == DynamicProperty.TYPE.BOOLEAN)
+                    lazy |= p.getValueBoolean();
+                else if (p.getName() == DynamicProperty.NAME.VISIBILITY && p.getType() == DynamicProperty.TYPE.STRING && !p.isBound())
+                    lazy |= "gone".equals(p.getValueString());
+                if (p.getName() == DynamicProperty.NAME.ID) {
+                    String id = p.getValueString();
+                    if (!TextUtils.isEmpty(id))
+                        idIndex = indexOf(id);
+                }
+            }
+            pendingRefs.add(refs);
+            pendingProperties.add(props);
+            nodeCount++;
+            if (bound)
+                boundCount++;
+
+            return new Node(widget, widgetClass, props, appliers.toArray(new PropertyApplier[appliers.size()]), generation,
+                    refs, idIndex, bound, lazy, children.toArray(new Node[children.size()]));
+        }
+
+        LayoutTemplate build(Node root) {
+            /* resolve the ids that layout properties reference, now that all ids are known */
+            for (int n = 0; n < pendingRefs.size(); n++) {
+                int[] refs = pendingRefs.get(n);
+                DynamicProperty[] props = pendingProperties.get(n);
+                for (int i = 0; i < props.length; i++) {
+                    refs[i] = -1;
+                    if (isReference(props[i].getName())) {
+                        refs[i] = idIndices.get(props[i].getValueString(), -1);
+                    }
+                }
+            }
+            /* keep once the values and subtrees that other templates already have */
+            root = TemplateInterner.share(root);
+            return new LayoutTemplate(root, idNames.toArray(new String[idNames.size()]), idIndices, nodeCount, boundCount);
+        }
+
+        /**
+         * BASE64 images of the view are decoded to the size of the view when it is set in pixels
+         */
+        private void targetImages(List<DynamicProperty> properties) {
+            int width = 0;
+            int height = 0;
+            for (DynamicProperty p : properties) {
+                if (p.getType() != DynamicProperty.TYPE.DIMEN)
+                    continue;
+                if (p.getName() == DynamicProperty.NAME.LAYOUT_WIDTH)
+                    width = Math.max(0, p.getValueInt());
+                else if (p.getName() == DynamicProperty.NAME.LAYOUT_HEIGHT)
+                    height = Math.max(0, p.getValueInt());
+            }
+            if (width == 0 && height == 0)
+                return;
+            for (int i = 0; i < properties.size(); i++) {
+                DynamicProperty p = properties.get(i);
+                if ((p.getName() == DynamicProperty.NAME.SRC || p.getName() == DynamicProperty.NAME.BACKGROUND)
+                        && p.getValue() instanceof Base64Image) {
+                    Base64Image image = ((Base64Image) p.getValue()).withTargetSize(width, height);
+                    properties.set(i, new DynamicProperty(p.getName(), p.getCustomName(), p.getType(), image));
+                }
+            }
+        }
+
+        private int indexOf(String id) {
+            int index = idIndices.get(id, -1);
+            if (index < 0) {
+                index = idNames.size();
+                idNames.add(id);
+                idIndices.put(id, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * @return true if the property applies in the LayoutParams of the view
+     */
+    static boolean isLayout(DynamicProperty.NAME name) {
+        return LAYOUT_NAMES.contains(name);
+    }
+
+    private static final EnumSet<DynamicProperty.NAME> LAYOUT_NAMES = EnumSet.noneOf(DynamicProperty.NAME.class);
+
+    static {
+        for (DynamicProperty.NAME name : DynamicProperty.NAME.values()) {
+            if (name.name().startsWith("LAYOUT_"))
+                LAYOUT_NAMES.add(name);
+        }
+    }
+
+    /**
+     * @return true if the value of the property is the id of another view
+     */
+    static boolean isReference(DynamicProperty.NAME name) {
+        switch (name) {
+            case LAYOUT_ABOVE:
+            case LAYOUT_BELOW:
+            case LAYOUT_TOLEFTOF:
+            case LAYOUT_TORIGHTOF:
+            case LAYOUT_TOSTARTOF:
+            case LAYOUT_TOENDOF:
+            case LAYOUT_ALIGNBASELINE:
+            case LAYOUT_ALIGNLEFT:
+            case LAYOUT_ALIGNTOP:
+            case LAYOUT_ALIGNRIGHT:
+            case LAYOUT_ALIGNBOTTOM:
+            case LAYOUT_ALIGNSTART:
+            case LAYOUT_ALIGNEND:
+                return true;
+        }
+        return false;
+    }
+
+}
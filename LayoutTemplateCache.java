@@ -0,0 +1,156 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keep compiled {@link LayoutTemplate} keyed by the hash of the json content,
+ * so the same layout is parsed and converted only once.
+ * Least recently used templates are evicted when the cache is full.
+ */
+public class LayoutTemplateCache {
+
+    private static final int DEFAULT_MAX_TEMPLATES = 64;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static LayoutTemplateCache sDefault;
+
+    private final LruCache<String, LayoutTemplate> cache;
+    /* key of every json object looked up, so an object is serialized and hashed once (json objects compare by instance) */
+    private final Map<JSONObject, String> objectKeys = Collections.synchronizedMap(new WeakHashMap<JSONObject, String>());
+
+    /**
+     * @param maxTemplates : maximum number of templates to keep
+     */
+    public LayoutTemplateCache(int maxTemplates) {
+        cache = new LruCache<>(maxTemplates);
+    }
+
+    /**
+     * @return the shared cache of the process
+     */
+    public static synchronized LayoutTemplateCache getDefault() {
+        if (sDefault == null)
+            sDefault = new LayoutTemplateCache(DEFAULT_MAX_TEMPLATES);
+        return sDefault;
+    }
+
+    /**
+     * @param json : layout as string
+     * @return the cached template or compile the json and keep it. The json is parsed only in case of a miss
+     */
+    public LayoutTemplate get(@NonNull String json) {
+        String key = hash(json);
+        LayoutTemplate template = cache.get(key);
+        if (template == null) {
+            try {
+                template = LayoutTemplate.compile(new JSONObject(json));
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+            if (template != null)
+                cache.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * the key of the object is computed (json serialized and hashed) on its first lookup only,
+     * the object must not change after it is passed here
+     * @param jsonObject : layout as json object
+     * @return the cached template or compile the json and keep it
+     */
+    public LayoutTemplate get(@NonNull JSONObject jsonObject) {
+        String key = objectKeys.get(jsonObject);
+        if (key == null) {
+            key = hash(jsonObject.toString());
+            objectKeys.put(jsonObject, key);
+        }
+        return get(key, jsonObject);
+    }
+
+    /**
+     * look up without serializing the json, e.g. with the name and version of the layout in the app
+     * @param key : key of the layout, the same key must always be used for the same layout
+     * @param jsonObject : layout as json object, compiled only in case of a miss
+     * @return the cached template or compile the json and keep it
+     */
+    public LayoutTemplate get(@NonNull String key, @NonNull JSONObject jsonObject) {
+        LayoutTemplate template = cache.get(key);
+        if (template == null) {
+            template = LayoutTemplate.compile(jsonObject);
+            if (template != null)
+                cache.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * remove all templates
+     */
+    public void evictAll() {
+        cache.evictAll();
+    }
+
+    /**
+     * @return number of templates in cache
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public int hitCount() {
+        return cache.hitCount();
+    }
+
+    public int missCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * @return hex SHA-1 of the content, used as key of the cache
+     */
+    static String hash(String content) {
+        String hash = hash(content.getBytes(UTF_8));
+        /* every platform provides SHA-1, fallback to the content itself */
+        return hash != null ? hash : content;
+    }
+
+    /**
+     * @return hex SHA-1 of the bytes or null if SHA-1 is not available
+     */
+    static String hash(byte[] content) {
+        return hash(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * @return hex SHA-1 of the bytes from position to limit, or null if SHA-1 is not available
+     */
+    static String hash(ByteBuffer content) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            messageDigest.update(content.duplicate());
+            byte[] digest = messageDigest.digest();
+            char[] chars = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                chars[i * 2] = HEX[(digest[i] >> 4) & 0x0f];
+                chars[i * 2 + 1] = HEX[digest[i] & 0x0f];
+            }
+            return new String(chars);
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+}
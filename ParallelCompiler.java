@@ -0,0 +1,201 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compile large layouts with the subtrees prepared in parallel on a ForkJoinPool:
+ * properties are created and converted (dimens, colors, drawables, image bounds) by sibling subtrees at the same time,
+ * then the nodes are created in one thread in the same order as {@link LayoutTemplate.Compiler#compileNode(JSONObject)},
+ * so ids get the same indices and children keep their order. BASE64 images are decoded in parallel at the end.
+ *
+ * Views are not created here, views are created by the thread that inflates the template.
+ */
+class ParallelCompiler {
+
+    /** layouts with less nodes are compiled sequentially */
+    static final int THRESHOLD = 64;
+    /** subtrees with less nodes are prepared in the task of their parent */
+    private static final int SPLIT = 16;
+
+    private static ForkJoinPool sPool;
+
+    private static synchronized ForkJoinPool pool() {
+        if (sPool == null)
+            sPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        return sPool;
+    }
+
+    /**
+     * @param jsonObject : json object
+     * @return the compiled template or null if json is not a valid layout
+     */
+    static LayoutTemplate compile(@NonNull JSONObject jsonObject) {
+        /* size of every subtree, read only while tasks run */
+        IdentityHashMap<JSONObject, Integer> sizes = new IdentityHashMap<>();
+        if (count(jsonObject, sizes) < THRESHOLD)
+            return compileSequential(jsonObject);
+
+        PreparedNode root = pool().invoke(new PrepareTask(jsonObject, sizes));
+        if (root == null)
+            return null;
+        LayoutTemplate.Compiler compiler = new LayoutTemplate.Compiler();
+        LayoutTemplate template = compiler.build(createNode(compiler, root));
+
+        final List<Base64Image> images = new ArrayList<>();
+        collectImages(template.root, images);
+        if (!images.isEmpty()) {
+            pool().invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    List<ForkJoinTask<?>> decodes = new ArrayList<>(images.size());
+                    for (final Base64Image image : images) {
+                        decodes.add(new RecursiveAction() {
+                            @Override
+                            protected void compute() {
+                                /* keep the bitmap in cache, views get it when they apply the property */
+                                ImagePipeline.decode(image);
+                            }
+                        });
+                    }
+                    invokeAll(decodes);
+                }
+            });
+        }
+        return template;
+    }
+
+    private static LayoutTemplate compileSequential(JSONObject jsonObject) {
+        LayoutTemplate.Compiler compiler = new LayoutTemplate.Compiler();
+        LayoutTemplate.Node root = compiler.compileNode(jsonObject);
+        if (root == null)
+            return null;
+        return compiler.build(root);
+    }
+
+    /**
+     * @return number of nodes in the subtree of json, kept for json and every descendant
+     */
+    private static int count(JSONObject jsonObject, IdentityHashMap<JSONObject, Integer> sizes) {
+        int count = 1;
+        JSONArray jViews = jsonObject.optJSONArray("views");
+        if (jViews != null) {
+            for (int i = 0; i < jViews.length(); i++) {
+                JSONObject jView = jViews.optJSONObject(i);
+                if (jView != null)
+                    count += count(jView, sizes);
+            }
+        }
+        sizes.put(jsonObject, count);
+        return count;
+    }
+
+    /**
+     * node with its properties converted, before its id and appliers are resolved
+     */
+    private static class PreparedNode {
+        final String widget;
+        final List<DynamicProperty> properties;
+        final List<PreparedNode> children;
+
+        PreparedNode(String widget, List<DynamicProperty> properties, List<PreparedNode> children) {
+            this.widget = widget;
+            this.properties = properties;
+            this.children = children;
+        }
+    }
+
+    /**
+     * prepare a subtree, large child subtrees are forked and joined in their order
+     */
+    @SuppressWarnings("serial")
+    private static class PrepareTask extends RecursiveTask<PreparedNode> {
+        private final JSONObject jsonObject;
+        private final IdentityHashMap<JSONObject, Integer> sizes;
+
+        PrepareTask(JSONObject jsonObject, IdentityHashMap<JSONObject, Integer> sizes) {
+            this.jsonObject = jsonObject;
+            this.sizes = sizes;
+        }
+
+        @Override
+        protected PreparedNode compute() {
+            String widget = jsonObject.optString("widget", null);
+            if (widget == null)
+                return null;
+            widget = ViewFactoryRegistry.normalizeWidget(widget);
+
+            JSONArray jViews = jsonObject.optJSONArray("views");
+            int count = jViews == null ? 0 : jViews.length();
+            /* fork the large subtrees first, prepare this node and the small subtrees meanwhile */
+            Object[] children = new Object[count];
+            for (int i = 0; i < count; i++) {
+                JSONObject jView = jViews.optJSONObject(i);
+                if (jView == null)
+                    continue;
+                if (sizes.get(jView) >= SPLIT)
+                    children[i] = new PrepareTask(jView, sizes).fork();
+                else
+                    children[i] = jView;
+            }
+
+            List<DynamicProperty> properties = new ArrayList<>();
+            JSONArray jArray = jsonObject.optJSONArray("properties");
+            if (jArray != null) {
+                for (int i = 0; i < jArray.length(); i++) {
+                    JSONObject jProperty = jArray.optJSONObject(i);
+                    if (jProperty == null)
+                        continue;
+                    DynamicProperty p = new DynamicProperty(jProperty);
+                    if (p.isValid())
+                        properties.add(p);
+                }
+            }
+
+            List<PreparedNode> prepared = new ArrayList<>(count);
+            for (Object child : children) {
+                PreparedNode node;
+                if (child instanceof PrepareTask)
+                    node = ((PrepareTask) child).join();
+                else if (child instanceof JSONObject)
+                    node = new PrepareTask((JSONObject) child, sizes).compute();
+                else
+                    node = null;
+                if (node != null)
+                    prepared.add(node);
+            }
+            return new PreparedNode(widget, properties, prepared);
+        }
+    }
+
+    /**
+     * create the nodes in the same order as {@link LayoutTemplate.Compiler#compileNode(JSONObject)}
+     */
+    private static LayoutTemplate.Node createNode(LayoutTemplate.Compiler compiler, PreparedNode prepared) {
+        List<LayoutTemplate.Node> children = new ArrayList<>(prepared.children.size());
+        for (PreparedNode child : prepared.children) {
+            children.add(createNode(compiler, child));
+        }
+        return compiler.createNode(prepared.widget, prepared.properties, children);
+    }
+
+    private static void collectImages(LayoutTemplate.Node node, List<Base64Image> images) {
+        for (DynamicProperty p : node.properties) {
+            if (p.getValue() instanceof Base64Image)
+                images.add((Base64Image) p.getValue());
+        }
+        for (LayoutTemplate.Node child : node.children) {
+            collectImages(child, images);
+        }
+    }
+}
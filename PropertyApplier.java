@@ -0,0 +1,18 @@
+package com.avocarrot.json2view;
+
+import android.view.View;
+
+/**
+ * Apply a property in a view.
+ * The view is always an instance of the class the applier registered for,
+ * see {@link PropertyAppliers#register(Class, String, PropertyApplier)}
+ */
+public interface PropertyApplier {
+
+    /**
+     * @param view : view to apply the property
+     * @param property : the property, with its value already converted by its type
+     */
+    void apply(View view, DynamicProperty property);
+
+}
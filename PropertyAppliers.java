@@ -0,0 +1,375 @@
+package com.avocarrot.json2view;
+
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.avocarrot.json2view.DynamicProperty.NAME;
+import com.avocarrot.json2view.DynamicProperty.TYPE;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table of {@link PropertyApplier} indexed by {@link DynamicProperty.NAME}.
+ * The table is resolved once per view class, so properties that cannot apply in a widget
+ * are dropped when the layout is compiled and not checked for every view.
+ * Apps can register appliers for custom properties of custom widgets with {@link #register(Class, String, PropertyApplier)}
+ */
+public class PropertyAppliers {
+
+    /**
+     * an applier with the view class and property types that can handle
+     */
+    private static class Entry {
+        final Class<? extends View> viewClass;
+        /* null for any type */
+        final EnumSet<TYPE> types;
+        final PropertyApplier applier;
+
+        Entry(Class<? extends View> viewClass, EnumSet<TYPE> types, PropertyApplier applier) {
+            this.viewClass = viewClass;
+            this.types = types;
+            this.applier = applier;
+        }
+
+        boolean canApply(Class viewClass, TYPE type) {
+            return this.viewClass.isAssignableFrom(viewClass) && (types == null || types.contains(type));
+        }
+    }
+
+    private static final NAME[] NAMES = NAME.values();
+
+    /* built in appliers by name ordinal */
+    @SuppressWarnings("unchecked")
+    private static final List<Entry>[] sBuiltIn = new List[NAMES.length];
+    /* custom appliers by property name (lowercase), latest registered first */
+    private static final ConcurrentHashMap<String, List<Entry>> sCustom = new ConcurrentHashMap<>();
+    /* resolved table by view class */
+    private static final ConcurrentHashMap<Class, Entry[]> sTables = new ConcurrentHashMap<>();
+    /* changes with every registration, written with the lock of sCustom */
+    private static volatile int sGeneration;
+
+    static {
+        builtIn(NAME.BACKGROUND, View.class, EnumSet.of(TYPE.COLOR, TYPE.COLOR_REF, TYPE.REF, TYPE.BASE64, TYPE.DRAWABLE), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyBackground(view, property);
+            }
+        });
+        builtIn(NAME.TEXT, TextView.class, EnumSet.of(TYPE.STRING, TYPE.REF), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyText((TextView) view, property);
+            }
+        });
+        builtIn(NAME.TEXTCOLOR, TextView.class, EnumSet.of(TYPE.COLOR, TYPE.COLOR_REF), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyTextColor((TextView) view, property);
+            }
+        });
+        builtIn(NAME.TEXTSIZE, TextView.class, EnumSet.of(TYPE.DIMEN, TYPE.REF), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyTextSize((TextView) view, property);
+            }
+        });
+        builtIn(NAME.TEXTSTYLE, TextView.class, EnumSet.of(TYPE.INTEGER, TYPE.STRING), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyTextStyle((TextView) view, property);
+            }
+        });
+        builtIn(NAME.TEXTALLCAPS, TextView.class, EnumSet.of(TYPE.BOOLEAN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyTextAllCaps((TextView) view, property);
+            }
+        });
+        builtIn(NAME.PADDING, View.class, EnumSet.of(TYPE.DIMEN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyPadding(view, property);
+            }
+        });
+        builtIn(NAME.PADDING_LEFT, View.class, EnumSet.of(TYPE.DIMEN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyPadding(view, property, 0);
+            }
+        });
+        builtIn(NAME.PADDING_TOP, View.class, EnumSet.of(TYPE.DIMEN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyPadding(view, property, 1);
+            }
+        });
+        builtIn(NAME.PADDING_RIGHT, View.class, EnumSet.of(TYPE.DIMEN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyPadding(view, property, 2);
+            }
+        });
+        builtIn(NAME.PADDING_BOTTOM, View.class, EnumSet.of(TYPE.DIMEN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyPadding(view, property, 3);
+            }
+        });
+        builtIn(NAME.MINWIDTH, View.class, EnumSet.of(TYPE.DIMEN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyMinWidth(view, property);
+            }
+        });
+        builtIn(NAME.MINHEIGTH, View.class, EnumSet.of(TYPE.DIMEN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyMinHeight(view, property);
+            }
+        });
+        builtIn(NAME.ELLIPSIZE, TextView.class, null, new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyEllipsize((TextView) view, property);
+            }
+        });
+        builtIn(NAME.MAXLINES, TextView.class, null, new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyMaxLines((TextView) view, property);
+            }
+        });
+        builtIn(NAME.ORIENTATION, LinearLayout.class, EnumSet.of(TYPE.INTEGER, TYPE.STRING), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyOrientation((LinearLayout) view, property);
+            }
+        });
+        builtIn(NAME.SUM_WEIGHT, LinearLayout.class, EnumSet.of(TYPE.FLOAT), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyWeightSum((LinearLayout) view, property);
+            }
+        });
+        builtIn(NAME.GRAVITY, TextView.class, EnumSet.of(TYPE.INTEGER, TYPE.STRING), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyGravity((TextView) view, property);
+            }
+        });
+        builtIn(NAME.GRAVITY, LinearLayout.class, EnumSet.of(TYPE.STRING), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyGravity((LinearLayout) view, property);
+            }
+        });
+        builtIn(NAME.SRC, ImageView.class, EnumSet.of(TYPE.REF, TYPE.BASE64), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applySrc((ImageView) view, property);
+            }
+        });
+        builtIn(NAME.SCALETYPE, ImageView.class, EnumSet.of(TYPE.STRING), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyScaleType((ImageView) view, property);
+            }
+        });
+        builtIn(NAME.ADJUSTVIEWBOUNDS, ImageView.class, EnumSet.of(TYPE.BOOLEAN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyAdjustBounds((ImageView) view, property);
+            }
+        });
+        builtIn(NAME.DRAWABLELEFT, TextView.class, EnumSet.of(TYPE.REF, TYPE.BASE64, TYPE.DRAWABLE), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyCompoundDrawable((TextView) view, property, 0);
+            }
+        });
+        builtIn(NAME.DRAWABLETOP, TextView.class, EnumSet.of(TYPE.REF, TYPE.BASE64, TYPE.DRAWABLE), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyCompoundDrawable((TextView) view, property, 1);
+            }
+        });
+        builtIn(NAME.DRAWABLERIGHT, TextView.class, EnumSet.of(TYPE.REF, TYPE.BASE64, TYPE.DRAWABLE), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyCompoundDrawable((TextView) view, property, 2);
+            }
+        });
+        builtIn(NAME.DRAWABLEBOTTOM, TextView.class, EnumSet.of(TYPE.REF, TYPE.BASE64, TYPE.DRAWABLE), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyCompoundDrawable((TextView) view, property, 3);
+            }
+        });
+        builtIn(NAME.ENABLED, View.class, EnumSet.of(TYPE.BOOLEAN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyEnabled(view, property);
+            }
+        });
+        builtIn(NAME.SELECTED, View.class, EnumSet.of(TYPE.BOOLEAN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applySelected(view, property);
+            }
+        });
+        builtIn(NAME.CLICKABLE, View.class, EnumSet.of(TYPE.BOOLEAN), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyClickable(view, property);
+            }
+        });
+        builtIn(NAME.SCALEX, View.class, EnumSet.of(TYPE.FLOAT), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyScaleX(view, property);
+            }
+        });
+        builtIn(NAME.SCALEY, View.class, EnumSet.of(TYPE.FLOAT), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyScaleY(view, property);
+            }
+        });
+        builtIn(NAME.TAG, View.class, null, new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyTag(view, property);
+            }
+        });
+        builtIn(NAME.FUNCTION, View.class, EnumSet.of(TYPE.JSON), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyFunction(view, property);
+            }
+        });
+        builtIn(NAME.VISIBILITY, View.class, EnumSet.of(TYPE.STRING), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyVisibility(view, property);
+            }
+        });
+        builtIn(NAME.ONCLICK, View.class, EnumSet.of(TYPE.STRING), new PropertyApplier() {
+            @Override
+            public void apply(View view, DynamicProperty property) {
+                DynamicHelper.applyOnClick(view, property);
+            }
+        });
+    }
+
+    /**
+     * register an applier for a property of a view class and its subclasses.
+     * It can be a new property name or a built in name to override it for that class.
+     * Only layouts compiled after the registration use it, their nodes are not shared with older templates, see {@link TemplateInterner}
+     * @param viewClass : class of the view that the property applies
+     * @param propertyName : the name of the property as set in json
+     * @param applier : applier of the property, value is converted by the type set in json
+     */
+    public static void register(@NonNull Class<? extends View> viewClass, @NonNull String propertyName, @NonNull PropertyApplier applier) {
+        String key = propertyName.toLowerCase(Locale.US).trim();
+        synchronized (sCustom) {
+            List<Entry> entries = new ArrayList<>();
+            entries.add(new Entry(viewClass, null, applier));
+            List<Entry> previous = sCustom.get(key);
+            if (previous != null)
+                entries.addAll(previous);
+            sCustom.put(key, entries);
+            sGeneration++;
+            sTables.clear();
+        }
+    }
+
+    /**
+     * @return changes with every registration, appliers resolved at the same generation are the same
+     */
+    static int generation() {
+        return sGeneration;
+    }
+
+    /**
+     * @param viewClass : class of the view, null if it is not known
+     * @param property : the property
+     * @return the applier of the property for that class of view or null if property cannot apply
+     */
+    static PropertyApplier get(Class viewClass, DynamicProperty property) {
+        if (viewClass == null)
+            return null;
+        if (property.getName() == NAME.NO_VALID) {
+            if (property.getCustomName() == null)
+                return null;
+            Entry entry = find(sCustom.get(property.getCustomName()), viewClass, property.getType());
+            return entry != null ? entry.applier : null;
+        }
+        Entry entry = tableFor(viewClass)[property.getName().ordinal()];
+        if (entry == null || (entry.types != null && !entry.types.contains(property.getType())))
+            return null;
+        return entry.applier;
+    }
+
+    /**
+     * @param viewClass : class of the view, null if it is not known
+     * @param properties : properties of the view
+     * @return for every property its applier, null for properties that cannot apply
+     */
+    static PropertyApplier[] resolve(Class viewClass, DynamicProperty[] properties) {
+        PropertyApplier[] appliers = new PropertyApplier[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            appliers[i] = get(viewClass, properties[i]);
+        }
+        return appliers;
+    }
+
+    /**
+     * @return the appliers for a view class indexed by the name ordinal, resolved once per class
+     */
+    private static Entry[] tableFor(Class viewClass) {
+        Entry[] table = sTables.get(viewClass);
+        if (table == null) {
+            int generation = sGeneration;
+            table = new Entry[NAMES.length];
+            for (NAME name : NAMES) {
+                /* custom appliers of a built in name go first */
+                Entry entry = find(sCustom.get(name.name().toLowerCase(Locale.US)), viewClass, null);
+                if (entry == null)
+                    entry = find(sBuiltIn[name.ordinal()], viewClass, null);
+                table[name.ordinal()] = entry;
+            }
+            /* a table built while an applier registered may miss it, use it once but do not keep it */
+            synchronized (sCustom) {
+                if (generation == sGeneration)
+                    sTables.put(viewClass, table);
+            }
+        }
+        return table;
+    }
+
+    private static Entry find(List<Entry> entries, Class viewClass, TYPE type) {
+        if (entries == null)
+            return null;
+        for (Entry entry : entries) {
+            if (type == null ? entry.viewClass.isAssignableFrom(viewClass) : entry.canApply(viewClass, type))
+                return entry;
+        }
+        return null;
+    }
+
+    private static void builtIn(NAME name, Class<? extends View> viewClass, EnumSet<TYPE> types, PropertyApplier applier) {
+        List<Entry> entries = sBuiltIn[name.ordinal()];
+        if (entries == null) {
+            entries = new ArrayList<>();
+            sBuiltIn[name.ordinal()] = entries;
+        }
+        entries.add(new Entry(viewClass, types, applier));
+    }
+}
@@ -0,0 +1,142 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import com.avocarrot.json2view.DynamicProperty.TYPE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import timber.log.Timber;
+
+/**
+ * Resolve the names of REF and COLOR_REF properties to resource ids.
+ * {@link android.content.res.Resources#getIdentifier(String, String, String)} is slow, so ids are cached
+ * per package and (type, name), missing resources too.
+ *
+ * Values may be a plain name ("title"), with type ("@string/title") or with package ("@android:color/white")
+ */
+public class ResourceResolver {
+
+    /* package -> type -> name -> id, 0 if resource is missing */
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, Integer>>> sIds = new ConcurrentHashMap<>();
+
+    /**
+     * remove all cached ids
+     */
+    public static void clear() {
+        sIds.clear();
+    }
+
+    /**
+     * resolve every reference of the template once and keep the ids in its properties,
+     * so inflating the template for the same package does not look up any name
+     * @param context : context of the package that the template is inflated in
+     * @param template : compiled layout
+     * @return the references that are missing as "@type/name", empty if all resources exist
+     */
+    public static List<String> resolve(@NonNull Context context, @NonNull LayoutTemplate template) {
+        List<String> missing = new ArrayList<>();
+        resolve(context, template.root, missing);
+        for (String reference : missing) {
+            Timber.w("missing resource %s", reference);
+        }
+        return missing;
+    }
+
+    private static void resolve(Context context, LayoutTemplate.Node node, List<String> missing) {
+        String packageName = context.getPackageName();
+        for (DynamicProperty property : node.properties) {
+            String type = resourceType(property);
+            if (type == null || property.isBound())
+                continue;
+            int id = getIdentifier(context, property.getValueString(), type);
+            property.setResourceId(packageName, id);
+            if (id == 0)
+                missing.add("@" + type + "/" + name(property.getValueString()));
+        }
+        for (LayoutTemplate.Node child : node.children) {
+            resolve(context, child, missing);
+        }
+    }
+
+    /**
+     * @param property : property with a reference value
+     * @param type : type of the resource ("drawable", "color", "string", "dimen")
+     * @return the id of the resource, 0 if it is missing
+     */
+    static int getIdentifier(@NonNull Context context, @NonNull DynamicProperty property, @NonNull String type) {
+        int id = property.getResourceId(context.getPackageName());
+        if (id < 0)
+            id = getIdentifier(context, property.getValueString(), type);
+        return id;
+    }
+
+    /**
+     * @param value : name of the resource as set in json
+     * @param type : type of the resource if value has no type
+     * @return the id of the resource, 0 if it is missing
+     */
+    static int getIdentifier(@NonNull Context context, @NonNull String value, @NonNull String type) {
+        String packageName = context.getPackageName();
+        int start = value.startsWith("@") ? 1 : 0;
+        int colon = value.indexOf(':');
+        int slash = value.lastIndexOf('/');
+        if (colon > 0 && (slash < 0 || colon < slash))
+            packageName = value.substring(start, colon);
+        if (slash > 0)
+            type = value.substring(Math.max(start, colon + 1), slash);
+        String name = slash >= 0 ? value.substring(slash + 1) : value;
+
+        ConcurrentHashMap<String, ConcurrentHashMap<String, Integer>> types = sIds.get(packageName);
+        if (types == null) {
+            types = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, ConcurrentHashMap<String, Integer>> previous = sIds.putIfAbsent(packageName, types);
+            if (previous != null)
+                types = previous;
+        }
+        ConcurrentHashMap<String, Integer> names = types.get(type);
+        if (names == null) {
+            names = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, Integer> previous = types.putIfAbsent(type, names);
+            if (previous != null)
+                names = previous;
+        }
+        Integer id = names.get(name);
+        if (id == null) {
+            id = context.getResources().getIdentifier(name, type, packageName);
+            names.put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return the type of resource that the built in appliers look up for the property, or null if it is not a reference
+     */
+    static String resourceType(DynamicProperty property) {
+        if (property.getType() == TYPE.COLOR_REF)
+            return "color";
+        if (property.getType() != TYPE.REF)
+            return null;
+        switch (property.getName()) {
+            case BACKGROUND:
+            case SRC:
+            case DRAWABLELEFT:
+            case DRAWABLETOP:
+            case DRAWABLERIGHT:
+            case DRAWABLEBOTTOM:
+                return "drawable";
+            case TEXT:
+                return "string";
+            case TEXTSIZE:
+                return "dimen";
+        }
+        return null;
+    }
+
+    private static String name(String value) {
+        return value.substring(value.lastIndexOf('/') + 1);
+    }
+}
@@ -0,0 +1,34 @@
+package com.avocarrot.json2view;
+
+import timber.log.Timber;
+
+/**
+ * Report the inflations that take longer than a threshold, with the path of their slowest node,
+ * register it with {@link DynamicView#addInflationListener(InflationListener)}.
+ * Reports are logged, override {@link #onSlowLayout(InflationMetrics)} to send them elsewhere
+ */
+public class SlowLayoutReporter implements InflationListener {
+
+    private final long thresholdNanos;
+
+    /**
+     * @param thresholdMillis : inflations that take longer are reported, e.g. 16 for a frame
+     */
+    public SlowLayoutReporter(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis * 1000000;
+    }
+
+    @Override
+    public void onInflated(InflationMetrics metrics) {
+        if (metrics.getTotalNanos() > thresholdNanos)
+            onSlowLayout(metrics);
+    }
+
+    /**
+     * called for every inflation over the threshold
+     * @param metrics : metrics of the inflation, {@link InflationMetrics#getSlowestNodePath()} names the slowest node
+     */
+    protected void onSlowLayout(InflationMetrics metrics) {
+        Timber.w("slow layout, slowest node %s : %s", metrics.getSlowestNodePath(), metrics);
+    }
+}
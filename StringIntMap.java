@@ -0,0 +1,80 @@
+package com.avocarrot.json2view;
+
+/**
+ * Compact map of String to int with open addressing, values are not boxed
+ */
+final class StringIntMap {
+
+    private String[] keys;
+    private int[] values;
+    private int size;
+
+    StringIntMap() {
+        this(8);
+    }
+
+    /**
+     * @param expected : number of entries expected
+     */
+    StringIntMap(int expected) {
+        int capacity = 4;
+        while (capacity < expected * 2)
+            capacity <<= 1;
+        keys = new String[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * @return the value of the key or missing if the map has no such key
+     */
+    int get(String key, int missing) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            String k = keys[i];
+            if (k == null)
+                return missing;
+            if (k.equals(key))
+                return values[i];
+        }
+    }
+
+    void put(String key, int value) {
+        if ((size + 1) * 2 > keys.length)
+            resize(keys.length * 2);
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            String k = keys[i];
+            if (k == null) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return;
+            }
+            if (k.equals(key)) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new String[capacity];
+        values = new int[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null)
+                put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+}
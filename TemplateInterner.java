@@ -0,0 +1,177 @@
+package com.avocarrot.json2view;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Share identical parts of compiled templates, across all templates in memory.
+ * When a template is built its property values, its properties and its subtrees are replaced by an equal
+ * instance that is already used by another template, if any, so repeated colors, dimens, strings, rows,
+ * dividers or badges are kept once. Only immutable state is shared: properties that reference a resource keep the id
+ * that {@link ResourceResolver} resolves, so they and the nodes that contain them stay with their template,
+ * only their values are shared. Nodes compare with the generation of their appliers, see {@link PropertyAppliers#register},
+ * so a template compiled after a registration never gets the nodes of an older one.
+ *
+ * Instances are weakly kept, they are released with the last template that uses them.
+ */
+public final class TemplateInterner {
+
+    private static volatile boolean sEnabled = true;
+
+    private static final Interner<Object> sValues = new Interner<>();
+    private static final Interner<DynamicProperty> sProperties = new Interner<>();
+    private static final Interner<LayoutTemplate.Node> sNodes = new Interner<>();
+
+    private TemplateInterner() {
+    }
+
+    /**
+     * @param enabled : false to keep every template apart (default true)
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    /**
+     * share the subtree with the other templates, children first so equal subtrees are found by their children
+     * @param node : node that is just built, its arrays are not used by anyone else yet
+     * @return node or the equal node that is already shared
+     */
+    static LayoutTemplate.Node share(LayoutTemplate.Node node) {
+        if (!sEnabled)
+            return node;
+        return shareChildren(node) ? sNodes.intern(node) : node;
+    }
+
+    /**
+     * share the values, properties and child subtrees of the node
+     * @return true if the node itself can be shared, it has no mutable property in its subtree
+     */
+    private static boolean shareChildren(LayoutTemplate.Node node) {
+        boolean immutable = true;
+        for (int i = 0; i < node.children.length; i++) {
+            LayoutTemplate.Node child = node.children[i];
+            if (shareChildren(child))
+                node.children[i] = sNodes.intern(child);
+            else
+                immutable = false;
+        }
+        for (int i = 0; i < node.properties.length; i++) {
+            DynamicProperty property = node.properties[i];
+            property.shareValue(sValues);
+            /* the resolved id of a reference is written after build */
+            if (ResourceResolver.resourceType(property) != null && !property.isBound())
+                immutable = false;
+            else
+                node.properties[i] = sProperties.intern(property);
+        }
+        return immutable;
+    }
+
+    /**
+     * @return the lookups and the shared instances since start, see {@link Report}
+     */
+    public static Report report() {
+        return new Report(sValues.lookups(), sValues.hits(), sValues.size(),
+                sProperties.lookups(), sProperties.hits(), sProperties.size(),
+                sNodes.lookups(), sNodes.hits(), sNodes.size());
+    }
+
+    /**
+     * Deduplication of the templates that built since start.
+     * For each kind, lookups are the instances that compiled, hits the ones replaced by a shared instance
+     * and size the distinct instances kept now
+     */
+    public static final class Report {
+        public final int valueLookups;
+        public final int valueHits;
+        public final int values;
+        public final int propertyLookups;
+        public final int propertyHits;
+        public final int properties;
+        public final int nodeLookups;
+        public final int nodeHits;
+        public final int nodes;
+
+        Report(int valueLookups, int valueHits, int values,
+               int propertyLookups, int propertyHits, int properties,
+               int nodeLookups, int nodeHits, int nodes) {
+            this.valueLookups = valueLookups;
+            this.valueHits = valueHits;
+            this.values = values;
+            this.propertyLookups = propertyLookups;
+            this.propertyHits = propertyHits;
+            this.properties = properties;
+            this.nodeLookups = nodeLookups;
+            this.nodeHits = nodeHits;
+            this.nodes = nodes;
+        }
+
+        /**
+         * @return part of compiled nodes that are shared instead of kept (0 to 1)
+         */
+        public float nodeDedupRatio() {
+            return ratio(nodeHits, nodeLookups);
+        }
+
+        /**
+         * @return part of compiled properties that are shared instead of kept (0 to 1)
+         */
+        public float propertyDedupRatio() {
+            return ratio(propertyHits, propertyLookups);
+        }
+
+        /**
+         * @return part of converted values that are shared instead of kept (0 to 1)
+         */
+        public float valueDedupRatio() {
+            return ratio(valueHits, valueLookups);
+        }
+
+        private static float ratio(int hits, int lookups) {
+            return lookups == 0 ? 0f : (float) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.US,
+                    "nodes %d/%d shared (%.1f%%), %d kept; properties %d/%d shared (%.1f%%), %d kept; values %d/%d shared (%.1f%%), %d kept",
+                    nodeHits, nodeLookups, nodeDedupRatio() * 100, nodes,
+                    propertyHits, propertyLookups, propertyDedupRatio() * 100, properties,
+                    valueHits, valueLookups, valueDedupRatio() * 100, values);
+        }
+    }
+
+    /**
+     * weak set of canonical instances, by equals
+     */
+    static final class Interner<T> {
+        private final WeakHashMap<T, WeakReference<T>> instances = new WeakHashMap<>();
+        private int lookups;
+        private int hits;
+
+        synchronized T intern(T value) {
+            lookups++;
+            WeakReference<T> ref = instances.get(value);
+            T shared = ref == null ? null : ref.get();
+            if (shared != null) {
+                hits++;
+                return shared;
+            }
+            instances.put(value, new WeakReference<>(value));
+            return value;
+        }
+
+        synchronized int lookups() {
+            return lookups;
+        }
+
+        synchronized int hits() {
+            return hits;
+        }
+
+        synchronized int size() {
+            return instances.size();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.avocarrot.json2view;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Sections of android.os.Trace around the phases of inflation, to see them in systrace / Perfetto,
+ * see {@link DynamicView#setTraceLevel(int)}.
+ * Callers check the level before they build a label, so a disabled level costs a volatile read.
+ */
+final class Tracing {
+
+    private static final String PREFIX = "json2view:";
+    /* longer section names are rejected by Trace */
+    private static final int MAX_LENGTH = 127;
+
+    private static volatile int sLevel = DynamicView.TRACE_OFF;
+
+    private Tracing() {
+    }
+
+    static void setLevel(int level) {
+        /* Trace exists since Jelly Bean MR2 */
+        sLevel = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2 ? level : DynamicView.TRACE_OFF;
+    }
+
+    /**
+     * @return true if the phases of inflation are traced
+     */
+    static boolean phases() {
+        return sLevel >= DynamicView.TRACE_PHASES;
+    }
+
+    /**
+     * @return true if every node is traced
+     */
+    static boolean nodes() {
+        return sLevel >= DynamicView.TRACE_NODES;
+    }
+
+    /**
+     * begin a section, every begin must be followed by {@link #end()} in the same thread
+     * @param name : name of the section without prefix
+     */
+    static void begin(String name) {
+        String section = PREFIX + name;
+        Trace.beginSection(section.length() > MAX_LENGTH ? section.substring(0, MAX_LENGTH) : section);
+    }
+
+    /**
+     * begin the section of a node, named by its widget and id, e.g. "json2view:TextView#title"
+     */
+    static void beginNode(LayoutTemplate.Node node, Inflation inflation) {
+        String name = node.widget.substring(node.widget.lastIndexOf('.') + 1);
+        if (node.idIndex >= 0)
+            name += "#" + inflation.ids[node.idIndex];
+        begin(name);
+    }
+
+    static void end() {
+        Trace.endSection();
+    }
+}
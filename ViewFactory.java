@@ -0,0 +1,19 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.view.View;
+
+/**
+ * Create the view object of a widget without reflection.
+ * Register custom views with {@link ViewFactoryRegistry#register(String, ViewFactory)}
+ */
+public interface ViewFactory {
+
+    /**
+     * @param context : context of the view
+     * @return the new view
+     */
+    View create(@NonNull Context context);
+
+}
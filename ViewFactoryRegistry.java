@@ -0,0 +1,261 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.view.View;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.HorizontalScrollView;
+import android.widget.ImageButton;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.RadioButton;
+import android.widget.RadioGroup;
+import android.widget.RelativeLayout;
+import android.widget.ScrollView;
+import android.widget.SeekBar;
+import android.widget.Space;
+import android.widget.Switch;
+import android.widget.TableLayout;
+import android.widget.TableRow;
+import android.widget.TextView;
+import android.widget.ToggleButton;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link ViewFactory} by widget name (full class name) used to create the views of a layout.
+ * Stock android.widget classes are registered, custom views can be registered by the app.
+ * Widgets without a factory are created by reflection, the constructor is resolved once per class name
+ */
+public class ViewFactoryRegistry {
+
+    private static final ConcurrentHashMap<String, ViewFactory> sFactories = new ConcurrentHashMap<>();
+    /* resolved classes by widget name, Void for names that are not classes */
+    private static final ConcurrentHashMap<String, Class> sClasses = new ConcurrentHashMap<>();
+
+    /* factory for widgets that cannot be created, so we don't look up for them again */
+    private static final ViewFactory MISSING = new ViewFactory() {
+        @Override
+        public View create(@NonNull Context context) {
+            return null;
+        }
+    };
+
+    static {
+        register("android.view.View", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new View(context);
+            }
+        });
+        register("android.widget.TextView", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new TextView(context);
+            }
+        });
+        register("android.widget.Button", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new Button(context);
+            }
+        });
+        register("android.widget.EditText", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new EditText(context);
+            }
+        });
+        register("android.widget.ImageView", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new ImageView(context);
+            }
+        });
+        register("android.widget.ImageButton", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new ImageButton(context);
+            }
+        });
+        register("android.widget.CheckBox", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new CheckBox(context);
+            }
+        });
+        register("android.widget.RadioButton", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new RadioButton(context);
+            }
+        });
+        register("android.widget.RadioGroup", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new RadioGroup(context);
+            }
+        });
+        register("android.widget.ToggleButton", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new ToggleButton(context);
+            }
+        });
+        register("android.widget.Switch", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new Switch(context);
+            }
+        });
+        register("android.widget.ProgressBar", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new ProgressBar(context);
+            }
+        });
+        register("android.widget.SeekBar", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new SeekBar(context);
+            }
+        });
+        register("android.widget.LinearLayout", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new LinearLayout(context);
+            }
+        });
+        register("android.widget.RelativeLayout", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new RelativeLayout(context);
+            }
+        });
+        register("android.widget.FrameLayout", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new FrameLayout(context);
+            }
+        });
+        register("android.widget.TableLayout", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new TableLayout(context);
+            }
+        });
+        register("android.widget.TableRow", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new TableRow(context);
+            }
+        });
+        register("android.widget.ScrollView", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new ScrollView(context);
+            }
+        });
+        register("android.widget.HorizontalScrollView", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new HorizontalScrollView(context);
+            }
+        });
+        register("android.widget.Space", new ViewFactory() {
+            @Override
+            public View create(@NonNull Context context) {
+                return new Space(context);
+            }
+        });
+    }
+
+    /**
+     * register a factory for a widget, replace any previous factory of the widget
+     * @param widget : widget as set in json. If not full package is available the widget is from android.widget
+     * @param factory : factory that creates the view
+     */
+    public static void register(@NonNull String widget, @NonNull ViewFactory factory) {
+        sFactories.put(normalizeWidget(widget), factory);
+    }
+
+    /**
+     * remove the factory of a widget, views will be created by reflection
+     */
+    public static void unregister(@NonNull String widget) {
+        sFactories.remove(normalizeWidget(widget));
+    }
+
+    /**
+     * @param widget : full class name of the view
+     * @return the view that created or null if widget cannot be created
+     */
+    static View createView(@NonNull Context context, @NonNull String widget) {
+        ViewFactory factory = sFactories.get(widget);
+        if (factory == null) {
+            factory = createReflectiveFactory(widget);
+            ViewFactory previous = sFactories.putIfAbsent(widget, factory);
+            if (previous != null)
+                factory = previous;
+        }
+        return factory.create(context);
+    }
+
+    /**
+     * @param widget : full class name of the view
+     * @return the class of the widget or null if the widget is not a class (e.g. a name registered with a factory)
+     */
+    static Class widgetClass(@NonNull String widget) {
+        Class widgetClass = sClasses.get(widget);
+        if (widgetClass == null) {
+            try {
+                InflationMetrics.reflectiveLookup();
+                widgetClass = Class.forName(widget);
+            } catch (ClassNotFoundException e) {
+                widgetClass = Void.class;
+            }
+            sClasses.put(widget, widgetClass);
+        }
+        return widgetClass == Void.class ? null : widgetClass;
+    }
+
+    /**
+     * If not full package is available the widget is from android.widget
+     */
+    static String normalizeWidget(String widget) {
+        if (!widget.contains(".")) {
+            return "android.widget." + widget;
+        }
+        return widget;
+    }
+
+    /**
+     * resolve the constructor (Context) of the class once and return a factory that uses it
+     */
+    private static ViewFactory createReflectiveFactory(String widget) {
+        try {
+            InflationMetrics.reflectiveLookup();
+            Class viewClass = Class.forName(widget);
+            final Constructor constructor = viewClass.getConstructor(Context.class);
+            return new ViewFactory() {
+                @Override
+                public View create(@NonNull Context context) {
+                    try {
+                        return (View) constructor.newInstance(context);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                    return null;
+                }
+            };
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return MISSING;
+    }
+}
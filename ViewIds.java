@@ -0,0 +1,60 @@
+package com.avocarrot.json2view;
+
+import android.os.Build;
+import android.view.View;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocate the integer ids of the views.
+ * By default ids are scoped per tree: the view with id index i has id FIRST_SCOPED_ID + i, so ids are unique in the tree,
+ * every inflation gets the same ids (saved state of a recreated tree is restored) and no state is shared between threads.
+ * Scoped ids are negative, out of the range of View.generateViewId() and of resource ids, so they do not collide
+ * with the other views of the window. Two trees in the same window have the same scoped ids, use unique ids to tell them apart.
+ * With unique ids every view gets a new id, from View.generateViewId() or the same algorithm in older versions,
+ * ids are recycled when they reach the limit of generated ids.
+ */
+final class ViewIds {
+
+    /** generated ids stay below the ids of aapt (0x7fxxxxxx) and framework (0x01xxxxxx) */
+    private static final int MAX_GENERATED_ID = 0x00FFFFFF;
+    /** lowest int, far from View.NO_ID (-1) for any number of ids in a tree */
+    private static final int FIRST_SCOPED_ID = Integer.MIN_VALUE;
+
+    private static final AtomicInteger sNextGeneratedId = new AtomicInteger(1);
+    private static volatile boolean sUnique = false;
+
+    static void setUnique(boolean unique) {
+        sUnique = unique;
+    }
+
+    /**
+     * @param idIndex : id index of the view in its template
+     * @return the id of the view
+     */
+    static int idOf(int idIndex) {
+        if (sUnique)
+            return generate();
+        return FIRST_SCOPED_ID + idIndex;
+    }
+
+    /**
+     * @return true if the id is not the same in every inflation, so a view keeps it when its tree is patched
+     */
+    static boolean isUnique() {
+        return sUnique;
+    }
+
+    private static int generate() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
+            return View.generateViewId();
+        for (;;) {
+            int result = sNextGeneratedId.get();
+            int next = result + 1;
+            if (next > MAX_GENERATED_ID)
+                next = 1;
+            if (sNextGeneratedId.compareAndSet(result, next))
+                return result;
+        }
+    }
+}
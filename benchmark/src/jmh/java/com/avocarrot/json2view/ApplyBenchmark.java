@@ -0,0 +1,79 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+import android.widget.RelativeLayout;
+import android.widget.TextView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apply phase : LayoutParams and properties of a compiled node applied in an existing view,
+ * needs a Context, see {@link BenchmarkContext}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplyBenchmark {
+
+    @Param({"LinearLayout", "RelativeLayout"})
+    public String parent;
+
+    @Param({"MINIMAL", "TYPICAL", "HEAVY"})
+    public String mix;
+
+    private ViewGroup viewGroup;
+    private TextView view;
+    private LayoutTemplate.Node node;
+    private int[] viewIds;
+
+    @Setup
+    public void setup() {
+        Context context = BenchmarkContext.get();
+        viewGroup = parent.equals("LinearLayout") ? new LinearLayout(context) : new RelativeLayout(context);
+        /* the second leaf of a synthetic row is a TextView with the properties of the mix, in HEAVY its rule refers to a sibling */
+        LayoutTemplate template = LayoutTemplate.compile(
+                SyntheticLayouts.create(1, 4, 0, SyntheticLayouts.PropertyMix.valueOf(mix)));
+        node = template.root.children[1];
+        viewIds = new int[template.ids.length];
+        for (int i = 0; i < viewIds.length; i++) {
+            viewIds[i] = ViewIds.idOf(i);
+        }
+        view = new TextView(context);
+        view.setLayoutParams(DynamicHelper.createLayoutParams(viewGroup));
+    }
+
+    @Benchmark
+    public Object createLayoutParams() {
+        return DynamicHelper.createLayoutParams(viewGroup);
+    }
+
+    @Benchmark
+    public View applyStyleProperties() {
+        DynamicHelper.applyStyleProperties(view, node.properties, node.appliers);
+        return view;
+    }
+
+    @Benchmark
+    public View applyLayoutProperties() {
+        DynamicHelper.applyLayoutProperties(view, node.properties, node.refs, viewGroup, viewIds);
+        return view;
+    }
+}
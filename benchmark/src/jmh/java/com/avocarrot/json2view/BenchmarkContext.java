@@ -0,0 +1,72 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Shared setup of the benchmarks.
+ *
+ * "gradle benchmark" runs every benchmark in a Robolectric sandbox, see {@link RobolectricRunner}.
+ * Without Android runtime (the android-all jar only, e.g. "gradle jmh") native methods are missing, only
+ * {@link PropertyBenchmark} without BASE64 and DRAWABLE (BitmapFactory and Paint are native) and {@link CompileBenchmark}
+ * with imageCount 0 run; the synthetic TYPICAL layouts and sample.json have no BASE64 or DRAWABLE values.
+ * Benchmarks that create views need a Context : the system property {@value #CONTEXT_PROVIDER} names a class with
+ * a public no-arg constructor that implements Callable&lt;Context&gt;, {@link RobolectricContext} in the sandbox.
+ */
+final class BenchmarkContext {
+
+    static final String CONTEXT_PROVIDER = "json2view.contextProvider";
+    static final String SAMPLE = "json2view.sample";
+
+    private static Context sContext;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @return the context of the runtime shim, created once per fork
+     * @throws IllegalStateException if no provider is set
+     */
+    static synchronized Context get() {
+        if (sContext == null) {
+            String provider = System.getProperty(CONTEXT_PROVIDER);
+            if (provider == null)
+                throw new IllegalStateException("set -D" + CONTEXT_PROVIDER + " to create views in benchmarks");
+            try {
+                @SuppressWarnings("unchecked")
+                Callable<Context> callable = (Callable<Context>) Class.forName(provider).newInstance();
+                sContext = callable.call();
+            } catch (Exception e) {
+                throw new IllegalStateException("cannot create context with " + provider, e);
+            }
+        }
+        return sContext;
+    }
+
+    /**
+     * @return sample.json of the repository, or the file set in {@value #SAMPLE}
+     */
+    static String sample() throws IOException {
+        File file = new File(System.getProperty(SAMPLE, "sample.json"));
+        if (!file.exists())
+            file = new File("../sample.json");
+        InputStream in = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.avocarrot.json2view;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Run the benchmarks with the GC profiler, so every result has its allocation rate (gc.alloc.rate.norm, bytes per operation)
+ * and GC count next to its time.
+ * args : JMH command line options, e.g. "-wi 1 -i 1 CompileBenchmark". Without a Context provider run only the benchmarks
+ * that need no Android runtime, see {@link BenchmarkContext}; with "gradle benchmark" all of them run in a Robolectric
+ * sandbox, see {@link RobolectricRunner}
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        run(args, false);
+    }
+
+    /**
+     * @param args : JMH command line options
+     * @param inProcess : true to run without forks, in the class loader of the caller
+     */
+    static void run(String[] args, boolean inProcess) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty())
+            options.include(BenchmarkMain.class.getPackage().getName() + ".*Benchmark");
+        if (inProcess) {
+            options.forks(0);
+        } else {
+            /* forks get the properties of the runner */
+            List<String> jvmArgs = new ArrayList<>();
+            for (String property : new String[] { BenchmarkContext.CONTEXT_PROVIDER, BenchmarkContext.SAMPLE }) {
+                String value = System.getProperty(property);
+                if (value != null)
+                    jvmArgs.add("-D" + property + "=" + value);
+            }
+            options.jvmArgsAppend(jvmArgs.toArray(new String[jvmArgs.size()]));
+        }
+        new Runner(options.build()).run();
+    }
+}
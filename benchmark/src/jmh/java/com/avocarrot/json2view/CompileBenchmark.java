@@ -0,0 +1,84 @@
+package com.avocarrot.json2view;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse and convert phases : json text to JSONObject and JSONObject to {@link LayoutTemplate},
+ * for sample.json and synthetic layouts of growing size
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompileBenchmark {
+
+    /** "sample" for sample.json, else the shape depth x breadth of a synthetic layout */
+    @Param({"sample", "2x4", "3x4", "4x4"})
+    public String layout;
+
+    @Param({"0", "8"})
+    public int imageCount;
+
+    @Param({"TYPICAL"})
+    public String mix;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    /** with sharing every compile after the first finds its nodes in {@link TemplateInterner} */
+    @Param({"false", "true"})
+    public boolean sharing;
+
+    private String json;
+    private JSONObject jsonObject;
+
+    @Setup
+    public void setup() throws Exception {
+        if (layout.equals("sample")) {
+            json = BenchmarkContext.sample();
+        } else {
+            String[] shape = layout.split("x");
+            json = SyntheticLayouts.create(Integer.parseInt(shape[0]), Integer.parseInt(shape[1]), imageCount,
+                    SyntheticLayouts.PropertyMix.valueOf(mix)).toString();
+        }
+        jsonObject = new JSONObject(json);
+        LayoutTemplate.setParallel(parallel);
+        TemplateInterner.setEnabled(sharing);
+    }
+
+    @Benchmark
+    public JSONObject parseJson() throws Exception {
+        return new JSONObject(json);
+    }
+
+    @Benchmark
+    public LayoutTemplate compile() {
+        return LayoutTemplate.compile(jsonObject);
+    }
+
+    @Benchmark
+    public LayoutTemplate compileText() throws Exception {
+        return LayoutTemplate.compile(new JSONObject(json));
+    }
+
+    @Benchmark
+    public LayoutTemplate compileStream() {
+        return LayoutTemplate.compile(new StringReader(json));
+    }
+}
@@ -0,0 +1,82 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construct phase, end to end : views created from json and from a compiled template,
+ * needs a Context, see {@link BenchmarkContext}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InflateBenchmark {
+
+    /** "sample" for sample.json, else the shape depth x breadth of a synthetic layout */
+    @Param({"sample", "2x4", "3x4", "4x4"})
+    public String layout;
+
+    @Param({"0", "8"})
+    public int imageCount;
+
+    @Param({"MINIMAL", "TYPICAL", "HEAVY"})
+    public String mix;
+
+    private Context context;
+    private FrameLayout parent;
+    private JSONObject jsonObject;
+    private LayoutTemplate template;
+    private DynamicViewPool pool;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkContext.get();
+        parent = new FrameLayout(context);
+        if (layout.equals("sample")) {
+            jsonObject = new JSONObject(BenchmarkContext.sample());
+        } else {
+            String[] shape = layout.split("x");
+            jsonObject = SyntheticLayouts.create(Integer.parseInt(shape[0]), Integer.parseInt(shape[1]), imageCount,
+                    SyntheticLayouts.PropertyMix.valueOf(mix));
+        }
+        template = LayoutTemplate.compile(jsonObject);
+        ResourceResolver.resolve(context, template);
+        pool = new DynamicViewPool(SyntheticLayouts.nodeCount(4, 4));
+    }
+
+    @Benchmark
+    public View createViewFromJson() {
+        return DynamicView.createView(context, jsonObject, parent);
+    }
+
+    @Benchmark
+    public View createViewFromTemplate() {
+        return DynamicView.createView(context, template, parent);
+    }
+
+    @Benchmark
+    public View createViewFromPool() {
+        View view = DynamicView.createView(context, template, parent, pool);
+        pool.release(view);
+        return view;
+    }
+}
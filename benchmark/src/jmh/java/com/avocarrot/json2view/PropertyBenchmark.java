@@ -0,0 +1,86 @@
+package com.avocarrot.json2view;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse phase : creation of a DynamicProperty and conversion of its value, for every TYPE.
+ * DRAWABLE measures the lookup in {@link DrawableCache} after the first creation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyBenchmark {
+
+    @Param({"STRING", "DIMEN", "INTEGER", "FLOAT", "COLOR", "REF", "BOOLEAN", "BASE64", "DRAWABLE", "JSON"})
+    public String type;
+
+    private String name;
+    private Object value;
+
+    @Setup
+    public void setup() throws Exception {
+        switch (DynamicProperty.TYPE.valueOf(type)) {
+            case STRING:
+                name = "text";
+                value = "Cash back on every purchase";
+                break;
+            case DIMEN:
+                name = "layout_marginTop";
+                value = "12dp";
+                break;
+            case INTEGER:
+                name = "maxLines";
+                value = "2";
+                break;
+            case FLOAT:
+                name = "layout_weight";
+                value = "0.5";
+                break;
+            case COLOR:
+                name = "textColor";
+                value = "#FF212121";
+                break;
+            case REF:
+                name = "layout_below";
+                value = "title";
+                break;
+            case BOOLEAN:
+                name = "clickable";
+                value = "true";
+                break;
+            case BASE64:
+                name = "src";
+                value = SyntheticLayouts.IMAGE;
+                break;
+            case DRAWABLE:
+                name = "background";
+                value = new JSONObject("{\"COLOR\":\"#E0E0E0\",\"CORNER\":\"4dp\",\"STROKECOLOR\":\"#BDBDBD\",\"STROKESIZE\":\"1dp\"}");
+                break;
+            case JSON:
+                name = "function";
+                value = new JSONObject("{\"function\":\"setAlpha\",\"args\":[{\"primitive\":\"Float\",\"value\":0.5}]}");
+                break;
+        }
+    }
+
+    @Benchmark
+    public DynamicProperty create() {
+        return new DynamicProperty(name, type, value);
+    }
+}
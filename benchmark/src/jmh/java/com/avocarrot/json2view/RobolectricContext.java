@@ -0,0 +1,19 @@
+package com.avocarrot.json2view;
+
+import android.content.Context;
+
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Context provider of {@link BenchmarkContext} : the application of the Robolectric sandbox that runs the benchmarks,
+ * valid only in the sandbox, see {@link RobolectricRunner}
+ */
+public class RobolectricContext implements Callable<Context> {
+
+    @Override
+    public Context call() {
+        return RuntimeEnvironment.getApplication();
+    }
+}
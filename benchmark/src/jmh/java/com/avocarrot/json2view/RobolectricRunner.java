@@ -0,0 +1,55 @@
+package com.avocarrot.json2view;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.Failure;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Run the benchmarks in a Robolectric sandbox, with "gradle benchmark".
+ *
+ * Robolectric loads the Android classes in its own class loader, a Context of the sandbox cannot be used by
+ * classes outside it. The runner starts {@link Sandboxed} with RobolectricTestRunner, which runs JMH in process,
+ * so the benchmarks are loaded in the sandbox too and {@link RobolectricContext} returns its application.
+ * This class must not reference Android classes, it is loaded outside the sandbox.
+ * args : JMH command line options
+ */
+public class RobolectricRunner {
+
+    private static final String ARGS = "json2view.jmhArgs";
+
+    public static void main(String[] args) {
+        /* the test runner creates the test, arguments pass as a property */
+        StringBuilder joined = new StringBuilder();
+        for (String arg : args) {
+            if (joined.length() > 0)
+                joined.append('\u0000');
+            joined.append(arg);
+        }
+        System.setProperty(ARGS, joined.toString());
+        System.setProperty(BenchmarkContext.CONTEXT_PROVIDER, RobolectricContext.class.getName());
+
+        Result result = new JUnitCore().run(Sandboxed.class);
+        for (Failure failure : result.getFailures()) {
+            System.err.println(failure.getTrace());
+        }
+        System.exit(result.wasSuccessful() ? 0 : 1);
+    }
+
+    /**
+     * runs JMH inside the sandbox, not a test
+     */
+    @RunWith(RobolectricTestRunner.class)
+    @Config(sdk = 28, manifest = Config.NONE)
+    public static class Sandboxed {
+
+        @Test
+        public void run() throws Exception {
+            String args = System.getProperty(ARGS, "");
+            BenchmarkMain.run(args.isEmpty() ? new String[0] : args.split("\u0000"), true);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.avocarrot.json2view;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Generate layouts of a given shape for the benchmarks, so costs can be measured as layouts grow.
+ * Every ViewGroup has breadth children down to depth, leaves are TextViews and ImageViews.
+ */
+final class SyntheticLayouts {
+
+    /**
+     * Properties set in every view
+     */
+    enum PropertyMix {
+        /** size only */
+        MINIMAL,
+        /** size, id, margins, padding, colors, text */
+        TYPICAL,
+        /** TYPICAL with relative rules, drawables and placeholders */
+        HEAVY
+    }
+
+    /* 1x1 transparent png */
+    static final String IMAGE = "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+
+    private final int depth;
+    private final int breadth;
+    private final int imageCount;
+    private final PropertyMix mix;
+    private int nextId;
+    private int images;
+
+    /**
+     * @param depth : levels of ViewGroups under the root
+     * @param breadth : children of every ViewGroup
+     * @param imageCount : number of leaves that are BASE64 ImageViews
+     * @param mix : properties of every view
+     */
+    private SyntheticLayouts(int depth, int breadth, int imageCount, PropertyMix mix) {
+        this.depth = depth;
+        this.breadth = breadth;
+        this.imageCount = imageCount;
+        this.mix = mix;
+    }
+
+    static JSONObject create(int depth, int breadth, int imageCount, PropertyMix mix) {
+        try {
+            return new SyntheticLayouts(depth, breadth, imageCount, mix).node(0);
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return number of views in a layout of this shape
+     */
+    static int nodeCount(int depth, int breadth) {
+        int count = 1;
+        int level = 1;
+        for (int i = 0; i < depth; i++) {
+            level *= breadth;
+            count += level;
+        }
+        return count;
+    }
+
+    private JSONObject node(int level) throws JSONException {
+        boolean leaf = level == depth;
+        String widget;
+        if (!leaf)
+            widget = level % 2 == 0 ? "LinearLayout" : "RelativeLayout";
+        else if (images < imageCount)
+            widget = "ImageView";
+        else
+            widget = "TextView";
+
+        JSONObject node = new JSONObject();
+        node.put("widget", widget);
+        JSONArray properties = new JSONArray();
+        properties.put(property("layout_width", "dimen", leaf ? "wrap_content" : "match_parent"));
+        properties.put(property("layout_height", "dimen", "wrap_content"));
+        if (mix != PropertyMix.MINIMAL)
+            typical(properties, widget, leaf);
+        if (mix == PropertyMix.HEAVY)
+            heavy(properties, widget);
+        node.put("properties", properties);
+
+        if (!leaf) {
+            JSONArray views = new JSONArray();
+            for (int i = 0; i < breadth; i++) {
+                views.put(node(level + 1));
+            }
+            node.put("views", views);
+        }
+        return node;
+    }
+
+    private void typical(JSONArray properties, String widget, boolean leaf) throws JSONException {
+        properties.put(property("id", "ref", "view_" + nextId++));
+        properties.put(property("layout_marginTop", "dimen", "4dp"));
+        properties.put(property("padding", "dimen", "8dp"));
+        properties.put(property("background", "color", leaf ? "#FFFFFF" : "#F2F2F2"));
+        if (widget.equals("LinearLayout"))
+            properties.put(property("orientation", "integer", "1"));
+        if (widget.equals("TextView")) {
+            properties.put(property("text", "string", "Item " + nextId));
+            properties.put(property("textSize", "dimen", "14sp"));
+            properties.put(property("textColor", "color", "#212121"));
+            properties.put(property("maxLines", "integer", "2"));
+        }
+        if (widget.equals("ImageView")) {
+            properties.put(property("src", "base64", IMAGE));
+            properties.put(property("scaleType", "string", "center_crop"));
+            images++;
+        }
+    }
+
+    private void heavy(JSONArray properties, String widget) throws JSONException {
+        if (nextId > 1)
+            properties.put(property("layout_below", "ref", "view_" + (nextId - 2)));
+        JSONObject drawable = new JSONObject();
+        drawable.put("COLOR", "#E0E0E0");
+        drawable.put("CORNER", "4dp");
+        drawable.put("STROKECOLOR", "#BDBDBD");
+        drawable.put("STROKESIZE", "1dp");
+        properties.put(property("background", "drawable", drawable));
+        if (widget.equals("TextView"))
+            properties.put(property("text", "string", "${item.title} #" + nextId));
+    }
+
+    private static JSONObject property(String name, String type, Object value) throws JSONException {
+        JSONObject property = new JSONObject();
+        property.put("name", name);
+        property.put("type", type);
+        property.put("value", value);
+        return property;
+    }
+}
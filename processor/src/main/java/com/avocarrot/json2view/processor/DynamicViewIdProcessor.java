@@ -0,0 +1,189 @@
+package com.avocarrot.json2view.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generate HolderClass_DynamicBinder for every holder class with {@code @DynamicViewId} fields,
+ * so holders are bound without reflection (see com.avocarrot.json2view.HolderBinder).
+ *
+ * Binder is not generated when an annotated field is private or the holder is private,
+ * such holders are bound with reflection at runtime.
+ */
+public class DynamicViewIdProcessor extends AbstractProcessor {
+
+    private static final String ANNOTATION = "com.avocarrot.json2view.DynamicViewId";
+    private static final String BINDER_SUFFIX = "_DynamicBinder";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+        if (annotation == null)
+            return false;
+
+        /* holder class -> its annotated fields */
+        Map<TypeElement, List<VariableElement>> holders = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.FIELD)
+                continue;
+            TypeElement holder = (TypeElement) element.getEnclosingElement();
+            List<VariableElement> fields = holders.get(holder);
+            if (fields == null) {
+                fields = new ArrayList<>();
+                holders.put(holder, fields);
+            }
+            fields.add((VariableElement) element);
+        }
+
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : holders.entrySet()) {
+            TypeElement holder = entry.getKey();
+            if (!isAccessible(holder, entry.getValue())) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "no binder for " + holder.getQualifiedName() + ", private holder or fields are bound with reflection", holder);
+                continue;
+            }
+            try {
+                write(holder, entry.getValue());
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "cannot write binder of " + holder.getQualifiedName() + ": " + e.getMessage(), holder);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAccessible(TypeElement holder, List<VariableElement> fields) {
+        /* the binder is in the package of the holder, holder and its enclosing classes must be visible and static */
+        for (Element e = holder; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement type = (TypeElement) e;
+            if (type.getModifiers().contains(Modifier.PRIVATE))
+                return false;
+            if (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC))
+                return false;
+        }
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL)
+                    || field.getModifiers().contains(Modifier.STATIC))
+                return false;
+        }
+        return true;
+    }
+
+    private void write(TypeElement holder, List<VariableElement> fields) throws IOException {
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(holder);
+        String packageName = packageElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(holder).toString();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String binderName = simpleBinaryName + BINDER_SUFFIX;
+        String holderName = holder.getQualifiedName().toString();
+
+        StringBuilder code = new StringBuilder();
+        if (!packageName.isEmpty())
+            code.append("package ").append(packageName).append(";\n\n");
+        code.append("import android.support.annotation.NonNull;\n")
+                .append("import android.view.View;\n\n")
+                .append("import com.avocarrot.json2view.DynamicViews;\n")
+                .append("import com.avocarrot.json2view.HolderBinder;\n\n")
+                .append("/**\n * Generated by json2view, binds the views of ").append(holderName).append("\n */\n")
+                .append("public final class ").append(binderName).append(" implements HolderBinder<").append(holderName).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public void bind(@NonNull ").append(holderName).append(" holder, @NonNull DynamicViews views) {\n")
+                .append("        View view;\n");
+        for (VariableElement field : fields) {
+            String type = processingEnv.getTypeUtils().erasure(field.asType()).toString();
+            code.append("        view = views.get(\"").append(escape(idOf(field))).append("\");\n")
+                    .append("        if (view instanceof ").append(type).append(")\n")
+                    .append("            holder.").append(field.getSimpleName()).append(" = (").append(type).append(") view;\n");
+        }
+        VariableElement idsField = idsField(holder);
+        if (idsField != null)
+            code.append("        holder.").append(idsField.getSimpleName()).append(" = views.ids();\n");
+        code.append("    }\n}\n");
+
+        String qualifiedBinderName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedBinderName, holder);
+        Writer writer = file.openWriter();
+        try {
+            writer.write(code.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @return id of the annotation or the name of the field if it is not set
+     */
+    private static String idOf(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().toString().equals(ANNOTATION))
+                continue;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("id")) {
+                    String id = value.getValue().getValue().toString();
+                    if (!id.isEmpty())
+                        return id;
+                }
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    /**
+     * @return the not annotated HashMap field named ids (any case) or null
+     */
+    private VariableElement idsField(TypeElement holder) {
+        TypeMirror hashMap = processingEnv.getTypeUtils().erasure(
+                processingEnv.getElementUtils().getTypeElement("java.util.HashMap").asType());
+        for (Element element : holder.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.FIELD || !element.getSimpleName().toString().equalsIgnoreCase("ids"))
+                continue;
+            if (element.getModifiers().contains(Modifier.PRIVATE) || element.getModifiers().contains(Modifier.FINAL)
+                    || element.getModifiers().contains(Modifier.STATIC))
+                continue;
+            boolean annotated = false;
+            for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+                annotated |= mirror.getAnnotationType().toString().equals(ANNOTATION);
+            }
+            if (!annotated && processingEnv.getTypeUtils().isSameType(
+                    processingEnv.getTypeUtils().erasure(element.asType()), hashMap))
+                return (VariableElement) element;
+        }
+        return null;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}